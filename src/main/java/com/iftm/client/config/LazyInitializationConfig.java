@@ -0,0 +1,26 @@
+package com.iftm.client.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.iftm.client.services.invalidation.ClientInvalidationRelay;
+import com.iftm.client.services.util.ClientCache;
+import com.iftm.client.services.util.Validador;
+
+/*
+ * Beans que continuam sendo criados na subida com spring.main.lazy-initialization
+ * (perfil fast): o relay precisa assinar o barramento antes da primeira escrita
+ * de outro nó, o cache carrega o snapshot antes de a aplicação ficar pronta e o
+ * Validador lê os limites de id fora do caminho da primeira requisição.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+	@Bean
+	static LazyInitializationExcludeFilter eagerClientBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(ClientInvalidationRelay.class, ClientCache.class,
+				Validador.class);
+	}
+
+}
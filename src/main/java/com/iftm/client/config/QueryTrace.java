@@ -0,0 +1,71 @@
+package com.iftm.client.config;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Contadores de SQL da requisição em andamento, por thread. O QueryTraceFilter
+ * abre o trace na entrada e o fecha na saída; o TracingDataSource soma nele
+ * cada execução (round trip ao banco), as linhas lidas ou alteradas e o tempo
+ * gasto no driver. Fora de uma requisição não há trace e nada é contado.
+ *
+ * repeated conta execuções de um SQL que já tinha rodado na mesma requisição:
+ * é o sinal de N+1 ou de leituras redundantes.
+ */
+public final class QueryTrace {
+
+	private static final ThreadLocal<QueryTrace> ATUAL = new ThreadLocal<>();
+
+	private final Set<String> executados = new HashSet<>();
+	private int statements;
+	private int repeated;
+	private long rows;
+	private long nanos;
+
+	public static QueryTrace iniciar() {
+		QueryTrace trace = new QueryTrace();
+		ATUAL.set(trace);
+		return trace;
+	}
+
+	public static QueryTrace atual() {
+		return ATUAL.get();
+	}
+
+	public static void encerrar() {
+		ATUAL.remove();
+	}
+
+	void registrarExecucao(String sql, long duracao, long linhas) {
+		statements++;
+		if (sql != null && !executados.add(sql)) {
+			repeated++;
+		}
+		nanos += duracao;
+		rows += linhas;
+	}
+
+	void registrarLeitura(long duracao, boolean linha) {
+		nanos += duracao;
+		if (linha) {
+			rows++;
+		}
+	}
+
+	public int getStatements() {
+		return statements;
+	}
+
+	public int getRepeated() {
+		return repeated;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+}
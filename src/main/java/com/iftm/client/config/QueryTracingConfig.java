@@ -0,0 +1,32 @@
+package com.iftm.client.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Com client.query-trace.enabled (padrão) o DataSource da aplicação, seja o
+ * pool do Spring Boot ou o roteado da réplica, passa pelo TracingDataSource.
+ * Os pools dos shards não são beans e ficam de fora.
+ */
+@Configuration
+@ConditionalOnProperty(value = "client.query-trace.enabled", matchIfMissing = true)
+public class QueryTracingConfig {
+
+	@Bean
+	static BeanPostProcessor tracingDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource && !(bean instanceof TracingDataSource)) {
+					return new TracingDataSource((DataSource) bean);
+				}
+				return bean;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.iftm.client.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.iftm.client.services.util.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Só entra quando client.datasource.replica.url está definida: um pool para o
+ * primário (spring.datasource.*), outro para a réplica (client.datasource.replica.*)
+ * e o DataSource roteado como único bean DataSource para JPA e JDBC. Os pools
+ * não são beans próprios, senão o Spring Boot tentaria inicializar/instrumentar
+ * cada um como se fosse o DataSource da aplicação.
+ */
+@Configuration
+@ConditionalOnProperty("client.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+	@Value("${client.datasource.replica.bootstrap-from-primary:false}")
+	private boolean bootstrapFromPrimary;
+
+	@Bean
+	public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry registry,
+			ReadYourWritesTracker readYourWrites,
+			@Value("${client.datasource.replica.url}") String url,
+			@Value("${client.datasource.replica.username:sa}") String username,
+			@Value("${client.datasource.replica.password:}") String password) {
+		Binder binder = Binder.get(environment);
+
+		HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+		if (primary.getPoolName() == null) {
+			primary.setPoolName("clients-primary-pool");
+		}
+		primary.setMetricRegistry(registry);
+
+		HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+				.url(url).username(username).password(password).build();
+		replica.setPoolName("clients-replica-pool");
+		binder.bind("client.datasource.replica.hikari", Bindable.ofInstance(replica));
+		replica.setMetricRegistry(registry);
+
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(readYourWrites, primary, replica);
+		Map<Object, Object> alvos = new HashMap<>();
+		alvos.put(ReplicaRoutingDataSource.PRIMARY, primary);
+		alvos.put(ReplicaRoutingDataSource.REPLICA, replica);
+		routing.setTargetDataSources(alvos);
+		routing.setDefaultTargetDataSource(primary);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	/*
+	 * Só para desenvolvimento com dois H2: copia esquema e dados do primário para
+	 * a réplica na subida (SCRIPT/RUNSCRIPT do H2). Depois disso a réplica fica
+	 * parada, o que também serve para ver o read-your-writes funcionando.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void copiarPrimarioParaReplica(ApplicationReadyEvent event) {
+		if (!bootstrapFromPrimary) {
+			return;
+		}
+		ReplicaRoutingDataSource routing = ReplicaRoutingDataSource.of(event.getApplicationContext().getBean(DataSource.class));
+		List<String> script = new JdbcTemplate(routing.getPrimary()).queryForList("SCRIPT", String.class);
+		JdbcTemplate replica = new JdbcTemplate(routing.getReplica());
+		replica.execute("DROP ALL OBJECTS");
+		for (String comando : script) {
+			replica.execute(comando);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.iftm.client.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.iftm.client.services.util.ReadYourWritesTracker;
+
+/*
+ * Transações readOnly vão para a réplica, o resto para o primário. A decisão
+ * depende do flag readOnly da transação corrente, que só existe depois do
+ * begin: por isso este DataSource fica atrás de um LazyConnectionDataSourceProxy.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+	public static final String REPLICA = "replica";
+
+	private final ReadYourWritesTracker readYourWrites;
+	private final DataSource primary;
+	private final DataSource replica;
+
+	public ReplicaRoutingDataSource(ReadYourWritesTracker readYourWrites, DataSource primary, DataSource replica) {
+		this.readYourWrites = readYourWrites;
+		this.primary = primary;
+		this.replica = replica;
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWrites.escreveuRecentemente()) {
+			return REPLICA;
+		}
+		return PRIMARY;
+	}
+
+	public DataSource getPrimary() {
+		return primary;
+	}
+
+	public DataSource getReplica() {
+		return replica;
+	}
+
+	public static ReplicaRoutingDataSource of(DataSource dataSource) {
+		DataSource atual = dataSource;
+		while (atual instanceof DelegatingDataSource) {
+			atual = ((DelegatingDataSource) atual).getTargetDataSource();
+		}
+		if (!(atual instanceof ReplicaRoutingDataSource)) {
+			throw new IllegalStateException("DataSource is not routed to a replica");
+		}
+		return (ReplicaRoutingDataSource) atual;
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.iftm.client.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.repositories.ClientReadRepository;
+import com.iftm.client.repositories.ShardedClientRepository;
+import com.iftm.client.services.util.Validador;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Com client.sharding.urls (lista separada por vírgula) os clientes passam a
+ * morar nos shards: cada URL vira um pool Hikari com tb_client criada por
+ * shard-schema.sql, e o ShardedClientRepository substitui o ClientReadRepository
+ * no ClientService. O DataSource principal continua existindo para o resto da
+ * aplicação.
+ */
+@Configuration
+@ConditionalOnProperty("client.sharding.urls")
+public class ShardingConfig {
+
+	@Value("${client.sharding.seed-from-primary:false}")
+	private boolean seedFromPrimary;
+
+	@Bean
+	@Primary
+	public ShardedClientRepository shardedClientRepository(MeterRegistry registry,
+			@Value("${client.sharding.urls}") String[] urls,
+			@Value("${client.sharding.username:sa}") String username,
+			@Value("${client.sharding.password:}") String password,
+			@Value("${client.sharding.pool-size:5}") int poolSize,
+			@Value("${client.sharding.query-timeout-ms:${client.query.timeout-ms:5000}}") long queryTimeoutMs,
+			@Value("${client.sharding.max-offset:10000}") int maxOffset,
+			@Value("${client.query.max-page-size:1000}") int maxPageSize,
+			@Value("${client.query.fetch-size:-1}") int fetchSize) {
+		ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("shard-schema.sql"));
+		List<DataSource> dataSources = new ArrayList<>();
+		for (int i = 0; i < urls.length; i++) {
+			HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+					.url(urls[i].trim()).username(username).password(password).build();
+			dataSource.setPoolName("clients-shard-" + i);
+			dataSource.setMaximumPoolSize(poolSize);
+			dataSource.setMetricRegistry(registry);
+			schema.execute(dataSource);
+			dataSources.add(dataSource);
+		}
+		return new ShardedClientRepository(dataSources, poolSize, queryTimeoutMs, maxOffset + maxPageSize, fetchSize);
+	}
+
+	/*
+	 * Desenvolvimento e testes: distribui pelos shards vazios os clientes do
+	 * banco principal (import.sql), como em uma migração inicial.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void distribuirClientesDoPrimario(ApplicationReadyEvent event) {
+		if (!seedFromPrimary) {
+			return;
+		}
+		ShardedClientRepository shards = event.getApplicationContext().getBean(ShardedClientRepository.class);
+		if (shards.findMaxId() != null) {
+			return;
+		}
+		JdbcTemplate primario = new JdbcTemplate(event.getApplicationContext().getBean(DataSource.class));
+		for (ClientDTO dto : primario.query("SELECT id, name, cpf, income, birth_date, children, version "
+				+ "FROM tb_client ORDER BY id", ClientReadRepository.ROW_MAPPER)) {
+			shards.insert(dto);
+		}
+		event.getApplicationContext().getBean(Validador.class).carregarLimites();
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.iftm.client.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/*
+ * Envolve conexões, statements e result sets em proxies que somam no
+ * QueryTrace da thread: cada execute* é um statement (executeBatch conta uma
+ * vez, é um round trip), as linhas alteradas vêm do retorno do execute e as
+ * lidas de cada next() verdadeiro. Sem trace ativo o proxy só repassa a chamada.
+ *
+ * Por ser um DelegatingDataSource, ReplicaRoutingDataSource.of() e o unwrap
+ * do Spring Boot (métricas do Hikari) continuam chegando ao pool.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+	public TracingDataSource(DataSource alvo) {
+		super(alvo);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return (Connection) proxy(Connection.class, obtainTargetDataSource().getConnection(), null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return (Connection) proxy(Connection.class, obtainTargetDataSource().getConnection(username, password), null);
+	}
+
+	private static Object proxy(Class<?> tipo, Object alvo, String sql) {
+		return Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] { tipo },
+				new Rastreador(alvo, sql));
+	}
+
+	private static final class Rastreador implements InvocationHandler {
+		private final Object alvo;
+		private final String sql;
+
+		Rastreador(Object alvo, String sql) {
+			this.alvo = alvo;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String nome = method.getName();
+			/* identidade do proxy: o Spring compara a conexão da transação com a recebida */
+			if (nome.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (nome.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			QueryTrace trace = QueryTrace.atual();
+			boolean execucao = trace != null && alvo instanceof Statement && nome.startsWith("execute");
+			boolean leitura = trace != null && alvo instanceof ResultSet && nome.equals("next");
+			long inicio = execucao || leitura ? System.nanoTime() : 0;
+			Object resultado;
+			try {
+				resultado = method.invoke(alvo, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (execucao) {
+				String comando = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+				trace.registrarExecucao(comando, System.nanoTime() - inicio, linhasAlteradas(resultado));
+			} else if (leitura) {
+				trace.registrarLeitura(System.nanoTime() - inicio, Boolean.TRUE.equals(resultado));
+			}
+			return envolver(method, args, resultado);
+		}
+
+		private Object envolver(Method method, Object[] args, Object resultado) {
+			if (resultado == null) {
+				return null;
+			}
+			Class<?> tipo = method.getReturnType();
+			if (tipo == PreparedStatement.class || tipo == CallableStatement.class) {
+				return proxy(tipo, resultado, (String) args[0]);
+			}
+			if (tipo == Statement.class || tipo == ResultSet.class) {
+				return proxy(tipo, resultado, null);
+			}
+			return resultado;
+		}
+
+		private static long linhasAlteradas(Object resultado) {
+			if (resultado instanceof Integer || resultado instanceof Long) {
+				return Math.max(0, ((Number) resultado).longValue());
+			}
+			long total = 0;
+			if (resultado instanceof int[]) {
+				for (int linhas : (int[]) resultado) {
+					total += Math.max(0, linhas);
+				}
+			} else if (resultado instanceof long[]) {
+				for (long linhas : (long[]) resultado) {
+					total += Math.max(0, linhas);
+				}
+			}
+			return total;
+		}
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.iftm.client.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.iftm.client.resources.converters.ClientJsonHttpMessageConverter;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+	/*
+	 * O conversor dedicado fica na frente do Jackson; ele só aceita ClientDTO e
+	 * Page<ClientDTO> em JSON, o resto segue para os conversores padrão.
+	 */
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(0, new ClientJsonHttpMessageConverter());
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.iftm.client.entities.ClientChange;
+
+public class ClientChangeDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long seq;
+	private Long clientId;
+	private ClientChange.Type type;
+	private Long version;
+	private Instant moment;
+
+	public ClientChangeDTO() {
+	}
+
+	public ClientChangeDTO(ClientChange entity) {
+		this.seq = entity.getSeq();
+		this.clientId = entity.getClientId();
+		this.type = entity.getType();
+		this.version = entity.getVersion();
+		this.moment = entity.getMoment();
+	}
+
+	public Long getSeq() {
+		return seq;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public ClientChange.Type getType() {
+		return type;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+}
@@ -5,43 +5,80 @@ import java.time.Instant;
 
 import com.iftm.client.entities.Client;
 
+/*
+ * Campos numéricos guardados como primitivos, com um bitmask marcando os nulos:
+ * uma página lida do banco não cria wrappers por linha. Os getters continuam
+ * devolvendo os tipos boxed (API e Jackson), e o serializador dedicado usa os
+ * acessores primitivos (hasX/xValue). campos guarda o fields= pedido: os
+ * demais não são serializados.
+ */
 public class ClientDTO implements Serializable {
-	private static final long serialVersionUID = 1L;
-	
-	private Long id;
+	private static final long serialVersionUID = 2L;
+
+	private static final int ID = 1;
+	private static final int INCOME = 1 << 1;
+	private static final int CHILDREN = 1 << 2;
+	private static final int VERSION = 1 << 3;
+	private static final int TODOS = ID | INCOME | CHILDREN | VERSION;
+
+	private long id;
 	private String name;
 	private String cpf;
-	private Double income;
+	private double income;
 	private Instant birthDate;
-	private Integer children;
-	
+	private int children;
+	private long version;
+	private int nulos = TODOS;
+	private int campos = ClientFields.MASCARA_TODOS;
+
 	public ClientDTO() {
 	}
 
 	public ClientDTO(Long id, String name, String cpf, Double income, Instant birthDate, Integer children) {
+		setId(id);
+		this.name = name;
+		this.cpf = cpf;
+		setIncome(income);
+		this.birthDate = birthDate;
+		setChildren(children);
+	}
+
+	public ClientDTO(Client entity) {
+		this(entity.getId(), entity.getName(), entity.getCpf(), entity.getIncome(), entity.getBirthDate(),
+				entity.getChildren());
+		setVersion(entity.getVersion());
+	}
+
+	/*
+	 * Usado pelas leituras JDBC: os valores chegam direto do ResultSet, sem boxing.
+	 */
+	public ClientDTO(long id, String name, String cpf, double income, boolean incomeNull, Instant birthDate,
+			int children, boolean childrenNull, long version, boolean versionNull) {
 		this.id = id;
 		this.name = name;
 		this.cpf = cpf;
 		this.income = income;
 		this.birthDate = birthDate;
 		this.children = children;
-	}
-	
-	public ClientDTO(Client entity) {
-		this.id = entity.getId();
-		this.name = entity.getName();
-		this.cpf = entity.getCpf();
-		this.income = entity.getIncome();
-		this.birthDate = entity.getBirthDate();
-		this.children = entity.getChildren();
+		this.version = version;
+		this.nulos = (incomeNull ? INCOME : 0) | (childrenNull ? CHILDREN : 0) | (versionNull ? VERSION : 0);
 	}
 
 	public Long getId() {
-		return id;
+		return hasId() ? id : null;
 	}
 
 	public void setId(Long id) {
-		this.id = id;
+		this.id = id == null ? 0 : id;
+		marcar(ID, id == null);
+	}
+
+	public boolean hasId() {
+		return (nulos & ID) == 0;
+	}
+
+	public long idValue() {
+		return id;
 	}
 
 	public String getName() {
@@ -61,11 +98,20 @@ public class ClientDTO implements Serializable {
 	}
 
 	public Double getIncome() {
-		return income;
+		return hasIncome() ? income : null;
 	}
 
 	public void setIncome(Double income) {
-		this.income = income;
+		this.income = income == null ? 0 : income;
+		marcar(INCOME, income == null);
+	}
+
+	public boolean hasIncome() {
+		return (nulos & INCOME) == 0;
+	}
+
+	public double incomeValue() {
+		return income;
 	}
 
 	public Instant getBirthDate() {
@@ -77,15 +123,53 @@ public class ClientDTO implements Serializable {
 	}
 
 	public Integer getChildren() {
-		return children;
+		return hasChildren() ? children : null;
 	}
 
 	public void setChildren(Integer children) {
-		this.children = children;
+		this.children = children == null ? 0 : children;
+		marcar(CHILDREN, children == null);
+	}
+
+	public boolean hasChildren() {
+		return (nulos & CHILDREN) == 0;
+	}
+
+	public int childrenValue() {
+		return children;
+	}
+
+	public Long getVersion() {
+		return hasVersion() ? version : null;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version == null ? 0 : version;
+		marcar(VERSION, version == null);
+	}
+
+	public boolean hasVersion() {
+		return (nulos & VERSION) == 0;
+	}
+
+	public long versionValue() {
+		return version;
+	}
+
+	public boolean temCampo(int campo) {
+		return (campos & campo) != 0;
+	}
+
+	public void restringir(ClientFields fields) {
+		this.campos = fields.mascara();
 	}
-	
+
 	public Client toEntity() {
-		return new Client(id, name, cpf, income, birthDate, children);
+		return new Client(getId(), name, cpf, getIncome(), birthDate, getChildren());
+	}
+
+	private void marcar(int campo, boolean nulo) {
+		nulos = nulo ? nulos | campo : nulos & ~campo;
 	}
 
 }
@@ -0,0 +1,55 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+/*
+ * Resultado de uma execução da detecção de duplicados.
+ */
+public class ClientDuplicateReportDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String status;
+	private long rowsScanned;
+	private long comparisons;
+	private long suggestions;
+	private double seconds;
+	private String error;
+
+	public ClientDuplicateReportDTO() {
+	}
+
+	public ClientDuplicateReportDTO(String status, long rowsScanned, long comparisons, long suggestions,
+			double seconds, String error) {
+		this.status = status;
+		this.rowsScanned = rowsScanned;
+		this.comparisons = comparisons;
+		this.suggestions = suggestions;
+		this.seconds = seconds;
+		this.error = error;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public long getRowsScanned() {
+		return rowsScanned;
+	}
+
+	public long getComparisons() {
+		return comparisons;
+	}
+
+	public long getSuggestions() {
+		return suggestions;
+	}
+
+	public double getSeconds() {
+		return seconds;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+}
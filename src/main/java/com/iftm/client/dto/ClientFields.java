@@ -0,0 +1,110 @@
+package com.iftm.client.dto;
+
+import java.security.InvalidParameterException;
+
+/*
+ * Conjunto de campos pedido em fields= (ex.: fields=id,name,cpf). Decide as
+ * colunas do SELECT e os campos serializados; sem fields, todos. As colunas
+ * saem sempre na mesma ordem, a de ClientDTO.
+ */
+public final class ClientFields {
+
+	public static final int ID = 1;
+	public static final int NAME = 1 << 1;
+	public static final int CPF = 1 << 2;
+	public static final int INCOME = 1 << 3;
+	public static final int BIRTH_DATE = 1 << 4;
+	public static final int CHILDREN = 1 << 5;
+	public static final int VERSION = 1 << 6;
+
+	public static final int MASCARA_TODOS = (1 << 7) - 1;
+	public static final ClientFields TODOS = new ClientFields(MASCARA_TODOS);
+
+	private static final String[] PROPRIEDADES = { "id", "name", "cpf", "income", "birthDate", "children", "version" };
+	private static final String[] COLUNAS = { "id", "name", "cpf", "income", "birth_date", "children", "version" };
+
+	private final int mascara;
+
+	private ClientFields(int mascara) {
+		this.mascara = mascara;
+	}
+
+	public static ClientFields parse(String fields) {
+		if (fields == null || fields.trim().isEmpty()) {
+			return TODOS;
+		}
+		int mascara = 0;
+		for (String campo : fields.split(",")) {
+			mascara |= campo(campo.trim());
+		}
+		return of(mascara);
+	}
+
+	public ClientFields com(int campo) {
+		return of(mascara | campo);
+	}
+
+	public ClientFields com(String propriedade) {
+		return com(campo(propriedade));
+	}
+
+	public boolean contem(int campo) {
+		return (mascara & campo) != 0;
+	}
+
+	public boolean isTodos() {
+		return mascara == MASCARA_TODOS;
+	}
+
+	public int mascara() {
+		return mascara;
+	}
+
+	public String colunas() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < COLUNAS.length; i++) {
+			if ((mascara & (1 << i)) != 0) {
+				if (sb.length() > 0) {
+					sb.append(", ");
+				}
+				sb.append(COLUNAS[i]);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static ClientFields of(int mascara) {
+		return mascara == MASCARA_TODOS ? TODOS : new ClientFields(mascara);
+	}
+
+	private static int campo(String propriedade) {
+		for (int i = 0; i < PROPRIEDADES.length; i++) {
+			if (PROPRIEDADES[i].equals(propriedade)) {
+				return 1 << i;
+			}
+		}
+		throw new InvalidParameterException("Invalid field : " + propriedade);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ClientFields && ((ClientFields) obj).mascara == mascara;
+	}
+
+	@Override
+	public int hashCode() {
+		return mascara;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < PROPRIEDADES.length; i++) {
+			if ((mascara & (1 << i)) != 0) {
+				sb.append(sb.length() > 0 ? "," : "").append(PROPRIEDADES[i]);
+			}
+		}
+		return sb.toString();
+	}
+
+}
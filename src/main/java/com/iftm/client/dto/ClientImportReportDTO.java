@@ -0,0 +1,82 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/*
+ * Resultado de uma importação. checkpoint é o número de linhas de dados já
+ * confirmadas (importadas ou rejeitadas) sem lacunas desde o início do arquivo:
+ * para retomar, reenvie o arquivo com resumeFrom = checkpoint e o mesmo importId.
+ */
+public class ClientImportReportDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String status;
+	private String importId;
+	private long linesRead;
+	private long imported;
+	private long rejected;
+	private long checkpoint;
+	private double seconds;
+	private double rowsPerSecond;
+	private String error;
+	private List<String> rejections;
+
+	public ClientImportReportDTO() {
+	}
+
+	public ClientImportReportDTO(String status, String importId, long linesRead, long imported, long rejected,
+			long checkpoint, double seconds, String error, List<String> rejections) {
+		this.status = status;
+		this.importId = importId;
+		this.linesRead = linesRead;
+		this.imported = imported;
+		this.rejected = rejected;
+		this.checkpoint = checkpoint;
+		this.seconds = seconds;
+		this.rowsPerSecond = seconds > 0 ? (imported + rejected) / seconds : 0;
+		this.error = error;
+		this.rejections = rejections;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public String getImportId() {
+		return importId;
+	}
+
+	public long getLinesRead() {
+		return linesRead;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public long getCheckpoint() {
+		return checkpoint;
+	}
+
+	public double getSeconds() {
+		return seconds;
+	}
+
+	public double getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public List<String> getRejections() {
+		return rejections;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.iftm.client.entities.ClientMergeSuggestion;
+
+public class ClientMergeSuggestionDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long clientId;
+	private Long duplicateId;
+	private ClientMergeSuggestion.Reason reason;
+	private Double score;
+	private Instant moment;
+
+	public ClientMergeSuggestionDTO() {
+	}
+
+	public ClientMergeSuggestionDTO(ClientMergeSuggestion entity) {
+		this.clientId = entity.getClientId();
+		this.duplicateId = entity.getDuplicateId();
+		this.reason = entity.getReason();
+		this.score = entity.getScore();
+		this.moment = entity.getMoment();
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public Long getDuplicateId() {
+		return duplicateId;
+	}
+
+	public ClientMergeSuggestion.Reason getReason() {
+		return reason;
+	}
+
+	public Double getScore() {
+		return score;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+}
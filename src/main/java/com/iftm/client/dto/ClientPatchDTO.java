@@ -0,0 +1,62 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Corpo de um JSON Merge Patch (RFC 7396): o Jackson só chama o setter das
+ * chaves presentes, então cada setter registra o campo a ser alterado
+ * (inclusive quando o valor é null).
+ */
+public class ClientPatchDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final Map<String, Object> campos = new LinkedHashMap<>();
+	private Long version;
+
+	public ClientPatchDTO() {
+	}
+
+	public void setName(String name) {
+		campos.put("name", name);
+	}
+
+	public void setCpf(String cpf) {
+		campos.put("cpf", cpf);
+	}
+
+	public void setIncome(Double income) {
+		campos.put("income", income);
+	}
+
+	public void setBirthDate(Instant birthDate) {
+		campos.put("birthDate", birthDate);
+	}
+
+	public void setChildren(Integer children) {
+		campos.put("children", children);
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public boolean contains(String campo) {
+		return campos.containsKey(campo);
+	}
+
+	public Object get(String campo) {
+		return campos.get(campo);
+	}
+
+	public Map<String, Object> getCampos() {
+		return campos;
+	}
+
+}
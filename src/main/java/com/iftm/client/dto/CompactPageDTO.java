@@ -0,0 +1,72 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+/*
+ * Envelope enxuto de página para os formatos binários: só o conteúdo e os
+ * números necessários para paginar, sem Pageable/Sort.
+ */
+public class CompactPageDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content;
+	private int number;
+	private int size;
+	private long totalElements;
+	private int totalPages;
+
+	public CompactPageDTO() {
+	}
+
+	public CompactPageDTO(Page<T> page) {
+		this.content = page.getContent();
+		this.number = page.getNumber();
+		this.size = page.getSize();
+		this.totalElements = page.getTotalElements();
+		this.totalPages = page.getTotalPages();
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public int getNumber() {
+		return number;
+	}
+
+	public void setNumber(int number) {
+		this.number = number;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public long getTotalElements() {
+		return totalElements;
+	}
+
+	public void setTotalElements(long totalElements) {
+		this.totalElements = totalElements;
+	}
+
+	public int getTotalPages() {
+		return totalPages;
+	}
+
+	public void setTotalPages(int totalPages) {
+		this.totalPages = totalPages;
+	}
+
+}
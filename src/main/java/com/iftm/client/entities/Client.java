@@ -7,10 +7,19 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "tb_client")
+@DynamicUpdate
+@Table(name = "tb_client", indexes = {
+		@Index(name = "idx_client_name", columnList = "name"),
+		@Index(name = "idx_client_cpf", columnList = "cpf"),
+		@Index(name = "idx_client_income", columnList = "income"),
+		@Index(name = "idx_client_birth_date", columnList = "birthDate") })
 public class Client implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
@@ -22,6 +31,9 @@ public class Client implements Serializable {
 	private Double income;
 	private Instant birthDate;
 	private Integer children;
+
+	@Version
+	private Long version;
 	
 	public Client() {
 	}
@@ -83,6 +95,14 @@ public class Client implements Serializable {
 		this.children = children;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
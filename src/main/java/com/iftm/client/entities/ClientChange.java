@@ -0,0 +1,67 @@
+package com.iftm.client.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/*
+ * Outbox das escritas em tb_client: uma linha por insert/update/delete, gravada
+ * na mesma transação da escrita. O seq é o cursor do feed de mudanças.
+ */
+@Entity
+@Table(name = "tb_client_change")
+public class ClientChange implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public enum Type {
+		INSERT, UPDATE, DELETE
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long seq;
+	private Long clientId;
+
+	@Enumerated(EnumType.STRING)
+	private Type type;
+	private Long version;
+	private Instant moment;
+
+	public ClientChange() {
+	}
+
+	public ClientChange(Long clientId, Type type, Long version, Instant moment) {
+		this.clientId = clientId;
+		this.type = type;
+		this.version = version;
+		this.moment = moment;
+	}
+
+	public Long getSeq() {
+		return seq;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+}
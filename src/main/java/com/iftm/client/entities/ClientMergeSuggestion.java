@@ -0,0 +1,68 @@
+package com.iftm.client.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/*
+ * Sugestão de mesclagem gerada pela detecção de duplicados: o par
+ * (clientId < duplicateId), o motivo e a similaridade dos nomes (0 a 1).
+ * A tabela é refeita a cada execução do job.
+ */
+@Entity
+@Table(name = "tb_client_merge_suggestion", indexes = {
+		@Index(name = "idx_merge_suggestion_score", columnList = "score") })
+public class ClientMergeSuggestion implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public enum Reason {
+		SAME_CPF, SIMILAR_NAME
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	private Long clientId;
+	private Long duplicateId;
+
+	@Enumerated(EnumType.STRING)
+	private Reason reason;
+	private Double score;
+	private Instant moment;
+
+	public ClientMergeSuggestion() {
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public Long getDuplicateId() {
+		return duplicateId;
+	}
+
+	public Reason getReason() {
+		return reason;
+	}
+
+	public Double getScore() {
+		return score;
+	}
+
+	public Instant getMoment() {
+		return moment;
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.iftm.client.entities.ClientChange;
+
+@Repository
+public interface ClientChangeRepository extends JpaRepository<ClientChange, Long> {
+
+	@Query("SELECT obj FROM ClientChange obj WHERE obj.seq > :since ORDER BY obj.seq")
+	List<ClientChange> findSince(long since, Pageable pageable);
+
+	@Query("SELECT MAX(obj.seq) FROM ClientChange obj")
+	Long findMaxSeq();
+
+	@Query("SELECT MAX(obj.seq) FROM ClientChange obj WHERE obj.moment < :limite")
+	Long findMaxSeqBefore(Instant limite);
+}
@@ -0,0 +1,10 @@
+package com.iftm.client.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.iftm.client.entities.ClientMergeSuggestion;
+
+@Repository
+public interface ClientMergeSuggestionRepository extends JpaRepository<ClientMergeSuggestion, Long> {
+}
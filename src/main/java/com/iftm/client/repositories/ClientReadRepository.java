@@ -0,0 +1,232 @@
+package com.iftm.client.repositories;
+
+import java.security.InvalidParameterException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFields;
+
+/*
+ * Leituras de tb_client direto via JDBC: cada linha vira um ClientDTO com campos
+ * primitivos, sem entidade gerenciada, snapshot de dirty checking nem wrappers.
+ * As escritas continuam no ClientRepository (JPA). Com fields= só as colunas
+ * pedidas são lidas, mais o id e as colunas da ordenação.
+ */
+@Repository
+public class ClientReadRepository {
+
+	private static final Map<String, String> COLUNAS_POR_PROPRIEDADE = new HashMap<>();
+
+	static {
+		COLUNAS_POR_PROPRIEDADE.put("id", "id");
+		COLUNAS_POR_PROPRIEDADE.put("name", "name");
+		COLUNAS_POR_PROPRIEDADE.put("cpf", "cpf");
+		COLUNAS_POR_PROPRIEDADE.put("income", "income");
+		COLUNAS_POR_PROPRIEDADE.put("birthDate", "birth_date");
+		COLUNAS_POR_PROPRIEDADE.put("children", "children");
+		COLUNAS_POR_PROPRIEDADE.put("version", "version");
+	}
+
+	public static final RowMapper<ClientDTO> ROW_MAPPER = ClientReadRepository::mapRow;
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	/*
+	 * Template próprio das leituras da API: o teto de linhas (o tamanho máximo
+	 * de página do QueryGovernor), o timeout e o fetch size valem só aqui. O
+	 * JdbcTemplate padrão (feed, importação, jobs) segue sem limites.
+	 */
+	@Autowired
+	public ClientReadRepository(DataSource dataSource,
+			@Value("${client.query.max-page-size:1000}") int maxRows,
+			@Value("${client.query.timeout-ms:5000}") long timeoutMs,
+			@Value("${client.query.fetch-size:-1}") int fetchSize) {
+		this.jdbcTemplate = template(dataSource, maxRows, timeoutMs, fetchSize);
+	}
+
+	protected ClientReadRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/*
+	 * Mesmos limites para o banco principal e para cada shard.
+	 */
+	public static NamedParameterJdbcTemplate template(DataSource dataSource, int maxRows, long timeoutMs,
+			int fetchSize) {
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.setMaxRows(maxRows);
+		template.setQueryTimeout((int) Math.max(1, (timeoutMs + 999) / 1000));
+		template.setFetchSize(fetchSize);
+		return new NamedParameterJdbcTemplate(template);
+	}
+
+	public Optional<ClientDTO> findById(long id) {
+		return findById(id, ClientFields.TODOS);
+	}
+
+	/*
+	 * A versão é sempre lida: é o ETag da resposta.
+	 */
+	public Optional<ClientDTO> findById(long id, ClientFields campos) {
+		ClientFields projecao = campos.com(ClientFields.ID).com(ClientFields.VERSION);
+		List<ClientDTO> list = jdbcTemplate.query("SELECT " + projecao.colunas() + " FROM tb_client WHERE id = :id",
+				new MapSqlParameterSource("id", id), mapper(projecao));
+		return list.isEmpty() ? Optional.empty() : Optional.of(restringir(list, campos).get(0));
+	}
+
+	public Page<ClientDTO> findAll(Pageable pageable, ClientFields campos) {
+		return page(null, new MapSqlParameterSource(), pageable, campos);
+	}
+
+	public Page<ClientDTO> findByIncome(double income, Pageable pageable, ClientFields campos) {
+		return page("income = :income", new MapSqlParameterSource("income", income), pageable, campos);
+	}
+
+	public Page<ClientDTO> findByIncomeGreaterThan(double income, Pageable pageable, ClientFields campos) {
+		return page("income > :income", new MapSqlParameterSource("income", income), pageable, campos);
+	}
+
+	public Page<ClientDTO> findByCpfLike(String cpf, Pageable pageable, ClientFields campos) {
+		return page("cpf LIKE :cpf", new MapSqlParameterSource("cpf", cpf), pageable, campos);
+	}
+
+	public Page<ClientDTO> search(ClientSearchCriteria criteria, Pageable pageable, ClientFields campos) {
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		return page(criteria.where(params), params, pageable, campos);
+	}
+
+	/*
+	 * O count só é executado quando a página não basta para saber o total
+	 * (mesma regra dos repositórios do Spring Data).
+	 */
+	private Page<ClientDTO> page(String where, MapSqlParameterSource params, Pageable pageable, ClientFields campos) {
+		String filtro = where == null ? "" : " WHERE " + where;
+		ClientFields projecao = projecao(campos, pageable.getSort());
+		StringBuilder sql = new StringBuilder("SELECT ").append(projecao.colunas()).append(" FROM tb_client").append(filtro);
+		sql.append(orderBy(pageable.getSort()));
+		if (pageable.isPaged()) {
+			sql.append(" OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY");
+			params.addValue("offset", pageable.getOffset()).addValue("limit", pageable.getPageSize());
+		}
+		List<ClientDTO> content = restringir(jdbcTemplate.query(sql.toString(), params, mapper(projecao)), campos);
+		return PageableExecutionUtils.getPage(content, pageable,
+				() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_client" + filtro, params, Long.class));
+	}
+
+	/*
+	 * Colunas lidas para uma listagem: as pedidas, o id e as da ordenação (o
+	 * merge entre shards compara os DTOs por elas).
+	 */
+	static ClientFields projecao(ClientFields campos, Sort sort) {
+		ClientFields projecao = campos.com(ClientFields.ID);
+		for (Sort.Order order : sort) {
+			projecao = projecao.com(order.getProperty());
+		}
+		return projecao;
+	}
+
+	static List<ClientDTO> restringir(List<ClientDTO> dtos, ClientFields campos) {
+		if (!campos.isTodos()) {
+			for (ClientDTO dto : dtos) {
+				dto.restringir(campos);
+			}
+		}
+		return dtos;
+	}
+
+	static RowMapper<ClientDTO> mapper(ClientFields projecao) {
+		return projecao.isTodos() ? ROW_MAPPER : (rs, rowNum) -> mapRow(rs, projecao);
+	}
+
+	public static String coluna(String propriedade) {
+		String coluna = COLUNAS_POR_PROPRIEDADE.get(propriedade);
+		if (coluna == null) {
+			throw new InvalidParameterException("Invalid orderBy : " + propriedade);
+		}
+		return coluna;
+	}
+
+	static String orderBy(Sort sort) {
+		if (sort.isUnsorted()) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder(" ORDER BY ");
+		boolean primeiro = true;
+		for (Sort.Order order : sort) {
+			if (!primeiro) {
+				sb.append(", ");
+			}
+			sb.append(coluna(order.getProperty())).append(order.isAscending() ? " ASC" : " DESC");
+			primeiro = false;
+		}
+		return sb.toString();
+	}
+
+	private static ClientDTO mapRow(ResultSet rs, int rowNum) throws SQLException {
+		long id = rs.getLong(1);
+		String name = rs.getString(2);
+		String cpf = rs.getString(3);
+		double income = rs.getDouble(4);
+		boolean incomeNull = rs.wasNull();
+		Timestamp birthDate = rs.getTimestamp(5);
+		int children = rs.getInt(6);
+		boolean childrenNull = rs.wasNull();
+		long version = rs.getLong(7);
+		boolean versionNull = rs.wasNull();
+		return new ClientDTO(id, name, cpf, income, incomeNull, birthDate == null ? null : birthDate.toInstant(),
+				children, childrenNull, version, versionNull);
+	}
+
+	/*
+	 * Mesma leitura para uma projeção parcial: as colunas vêm na ordem de
+	 * ClientFields e as ausentes ficam nulas.
+	 */
+	private static ClientDTO mapRow(ResultSet rs, ClientFields projecao) throws SQLException {
+		int i = 1;
+		long id = projecao.contem(ClientFields.ID) ? rs.getLong(i++) : 0;
+		String name = projecao.contem(ClientFields.NAME) ? rs.getString(i++) : null;
+		String cpf = projecao.contem(ClientFields.CPF) ? rs.getString(i++) : null;
+		double income = 0;
+		boolean incomeNull = true;
+		if (projecao.contem(ClientFields.INCOME)) {
+			income = rs.getDouble(i++);
+			incomeNull = rs.wasNull();
+		}
+		Timestamp birthDate = projecao.contem(ClientFields.BIRTH_DATE) ? rs.getTimestamp(i++) : null;
+		int children = 0;
+		boolean childrenNull = true;
+		if (projecao.contem(ClientFields.CHILDREN)) {
+			children = rs.getInt(i++);
+			childrenNull = rs.wasNull();
+		}
+		long version = 0;
+		boolean versionNull = true;
+		if (projecao.contem(ClientFields.VERSION)) {
+			version = rs.getLong(i++);
+			versionNull = rs.wasNull();
+		}
+		return new ClientDTO(id, name, cpf, income, incomeNull, birthDate == null ? null : birthDate.toInstant(),
+				children, childrenNull, version, versionNull);
+	}
+
+}
@@ -13,7 +13,7 @@ import org.springframework.stereotype.Repository;
 import com.iftm.client.entities.Client;
 
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository extends JpaRepository<Client, Long>, ClientRepositoryCustom {
     @Modifying
 	@Query("DELETE FROM Client obj WHERE "
 			+ "obj.cpf = :cpf")
@@ -65,4 +65,13 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
 	Page<Client> findByIncomeGreaterThan(double salarioI, Pageable pageable);
 	Page<Client> findByCpfLike(String parteCpf, Pageable pageable);
 	Page<Client> findByCpfStartingWith(String parteCpf, Pageable pageable);
+
+	@Query("SELECT obj.version FROM Client obj WHERE obj.id = :id")
+	Optional<Long> findVersionById(Long id);
+
+	@Query("SELECT MAX(obj.id) FROM Client obj")
+	Long findMaxId();
+
+	@Query("SELECT MIN(obj.id) FROM Client obj")
+	Long findMinId();
 }
@@ -0,0 +1,24 @@
+package com.iftm.client.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import com.iftm.client.entities.Client;
+
+public interface ClientRepositoryCustom {
+
+	/*
+	 * UPDATE direto apenas das colunas informadas, sem carregar a entidade.
+	 * Incrementa a versão e, se expectedVersion vier preenchida, só altera a
+	 * linha que ainda estiver nessa versão. Retorna o número de linhas alteradas.
+	 */
+	int updateFields(Long id, Long expectedVersion, Map<String, Object> campos);
+
+	/*
+	 * INSERT em lote via JDBC na conexão da transação corrente: com ids IDENTITY
+	 * o Hibernate não agrupa inserts, então a carga em massa passa por aqui.
+	 * Retorna os ids gerados, na ordem da lista.
+	 */
+	long[] insertBatch(List<Client> clients);
+
+}
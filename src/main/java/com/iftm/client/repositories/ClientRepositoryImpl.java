@@ -0,0 +1,77 @@
+package com.iftm.client.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.Session;
+
+import com.iftm.client.entities.Client;
+
+public class ClientRepositoryImpl implements ClientRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public int updateFields(Long id, Long expectedVersion, Map<String, Object> campos) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Client> update = cb.createCriteriaUpdate(Client.class);
+		Root<Client> root = update.from(Client.class);
+		for (Map.Entry<String, Object> campo : campos.entrySet()) {
+			update.set(campo.getKey(), campo.getValue());
+		}
+		update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+		Predicate where = cb.equal(root.get("id"), id);
+		if (expectedVersion != null) {
+			where = cb.and(where, cb.equal(root.get("version"), expectedVersion));
+		}
+		update.where(where);
+		return entityManager.createQuery(update).executeUpdate();
+	}
+
+	@Override
+	public long[] insertBatch(List<Client> clients) {
+		long[] ids = new long[clients.size()];
+		entityManager.unwrap(Session.class).doWork(connection -> {
+			try (PreparedStatement ps = connection.prepareStatement("INSERT INTO tb_client "
+					+ "(name, cpf, income, birth_date, children, version) VALUES (?, ?, ?, ?, ?, 0)", new String[] { "id" })) {
+				for (Client client : clients) {
+					ps.setString(1, client.getName());
+					ps.setString(2, client.getCpf());
+					if (client.getIncome() == null) {
+						ps.setNull(3, Types.DOUBLE);
+					} else {
+						ps.setDouble(3, client.getIncome());
+					}
+					ps.setTimestamp(4, client.getBirthDate() == null ? null : Timestamp.from(client.getBirthDate()));
+					if (client.getChildren() == null) {
+						ps.setNull(5, Types.INTEGER);
+					} else {
+						ps.setInt(5, client.getChildren());
+					}
+					ps.addBatch();
+				}
+				ps.executeBatch();
+				try (ResultSet keys = ps.getGeneratedKeys()) {
+					int i = 0;
+					while (keys.next() && i < ids.length) {
+						ids[i++] = keys.getLong(1);
+					}
+				}
+			}
+		});
+		return ids;
+	}
+
+}
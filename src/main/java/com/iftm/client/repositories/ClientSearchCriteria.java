@@ -0,0 +1,173 @@
+package com.iftm.client.repositories;
+
+import java.security.InvalidParameterException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/*
+ * Filtros combináveis da busca (/clients/search). Todos são opcionais e entram
+ * com AND. Os predicados são montados de forma a poder usar os índices de
+ * tb_client (prefixo em LIKE, faixas em vez de funções sobre a coluna) e saem
+ * ordenados pela seletividade estimada: primeiro os indexados, do mais para o
+ * menos seletivo, e por último children, que não tem índice. O otimizador
+ * escolhe o índice pelo custo; a ordem decide quais filtros residuais são
+ * avaliados primeiro em cada linha.
+ */
+public class ClientSearchCriteria {
+
+	private static final double ANOS_DE_IDADE = 80;
+
+	private String name;
+	private String cpf;
+	private Double incomeMin;
+	private Double incomeMax;
+	private Instant birthDateFrom;
+	private Instant birthDateTo;
+	private Integer childrenMin;
+	private Integer childrenMax;
+
+	/* nome: prefixo, sensível a maiúsculas (é o que o índice de name atende) */
+	public ClientSearchCriteria name(String name) {
+		this.name = vazioComoNulo(name);
+		return this;
+	}
+
+	/* cpf: só dígitos; 11 dígitos viram igualdade, menos que isso prefixo */
+	public ClientSearchCriteria cpf(String cpf) {
+		this.cpf = vazioComoNulo(cpf);
+		return this;
+	}
+
+	public ClientSearchCriteria income(Double min, Double max) {
+		this.incomeMin = min;
+		this.incomeMax = max;
+		return this;
+	}
+
+	public ClientSearchCriteria birthDate(Instant from, Instant to) {
+		this.birthDateFrom = from;
+		this.birthDateTo = to;
+		return this;
+	}
+
+	public ClientSearchCriteria children(Integer min, Integer max) {
+		this.childrenMin = min;
+		this.childrenMax = max;
+		return this;
+	}
+
+	/*
+	 * Cláusula WHERE (sem a palavra WHERE) com os parâmetros já adicionados, ou
+	 * null quando não há filtro.
+	 */
+	public String where(MapSqlParameterSource params) {
+		List<Predicado> predicados = planejar(params);
+		if (predicados.isEmpty()) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (Predicado predicado : predicados) {
+			if (sb.length() > 0) {
+				sb.append(" AND ");
+			}
+			sb.append(predicado.sql);
+		}
+		return sb.toString();
+	}
+
+	List<Predicado> planejar(MapSqlParameterSource params) {
+		validarFaixa("income", incomeMin, incomeMax);
+		validarFaixa("birthDate", birthDateFrom, birthDateTo);
+		validarFaixa("children", childrenMin, childrenMax);
+		List<Predicado> predicados = new ArrayList<>();
+		if (cpf != null) {
+			if (cpf.length() == 11) {
+				predicados.add(new Predicado("cpf = :cpf", 1e-9, true));
+				params.addValue("cpf", cpf);
+			} else {
+				predicados.add(new Predicado("cpf LIKE :cpf ESCAPE '\\'", Math.pow(10, -cpf.length()), true));
+				params.addValue("cpf", prefixo(cpf));
+			}
+		}
+		if (name != null) {
+			predicados.add(new Predicado("name LIKE :name ESCAPE '\\'", Math.pow(0.2, Math.min(name.length(), 6)), true));
+			params.addValue("name", prefixo(name));
+		}
+		if (incomeMin != null || incomeMax != null) {
+			predicados.add(faixa("income", incomeMin, incomeMax, incomeMin != null && incomeMax != null ? 0.1 : 0.3));
+			adicionar(params, "income", incomeMin, incomeMax);
+		}
+		if (birthDateFrom != null || birthDateTo != null) {
+			double seletividade = birthDateFrom != null && birthDateTo != null
+					? Math.min(1, Duration.between(birthDateFrom, birthDateTo).toDays() / 365.25 / ANOS_DE_IDADE)
+					: 0.5;
+			predicados.add(faixa("birth_date", birthDateFrom, birthDateTo, seletividade));
+			adicionar(params, "birth_date", birthDateFrom == null ? null : Timestamp.from(birthDateFrom),
+					birthDateTo == null ? null : Timestamp.from(birthDateTo));
+		}
+		if (childrenMin != null || childrenMax != null) {
+			predicados.add(faixa("children", childrenMin, childrenMax, 0.5).semIndice());
+			adicionar(params, "children", childrenMin, childrenMax);
+		}
+		predicados.sort(Comparator.comparing((Predicado p) -> !p.indexado).thenComparingDouble(p -> p.seletividade));
+		return predicados;
+	}
+
+	private static Predicado faixa(String coluna, Object min, Object max, double seletividade) {
+		String sql;
+		if (min != null && max != null) {
+			sql = coluna + " BETWEEN :" + coluna + "Min AND :" + coluna + "Max";
+		} else if (min != null) {
+			sql = coluna + " >= :" + coluna + "Min";
+		} else {
+			sql = coluna + " <= :" + coluna + "Max";
+		}
+		return new Predicado(sql, seletividade, true);
+	}
+
+	private static void adicionar(MapSqlParameterSource params, String coluna, Object min, Object max) {
+		if (min != null) {
+			params.addValue(coluna + "Min", min);
+		}
+		if (max != null) {
+			params.addValue(coluna + "Max", max);
+		}
+	}
+
+	private static <T extends Comparable<T>> void validarFaixa(String campo, T min, T max) {
+		if (min != null && max != null && min.compareTo(max) > 0) {
+			throw new InvalidParameterException("Invalid " + campo + " range : " + min + " > " + max);
+		}
+	}
+
+	private static String prefixo(String valor) {
+		return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
+
+	private static String vazioComoNulo(String valor) {
+		return valor == null || valor.isEmpty() ? null : valor;
+	}
+
+	static final class Predicado {
+		final String sql;
+		final double seletividade;
+		final boolean indexado;
+
+		Predicado(String sql, double seletividade, boolean indexado) {
+			this.sql = sql;
+			this.seletividade = seletividade;
+			this.indexado = indexado;
+		}
+
+		Predicado semIndice() {
+			return new Predicado(sql, seletividade, false);
+		}
+	}
+
+}
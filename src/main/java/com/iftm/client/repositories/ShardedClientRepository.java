@@ -0,0 +1,535 @@
+package com.iftm.client.repositories;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFields;
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.exceptions.QueryRejectedException;
+import com.iftm.client.services.util.Validador;
+
+/*
+ * tb_client particionada em N bancos. O shard de um cliente novo vem do CPF
+ * (cpf mod N) e fica gravado no próprio id global (idLocal * N + shard), então
+ * leituras e escritas por id vão direto a um único shard, mesmo que o CPF seja
+ * alterado depois. Listagens consultam todos os shards em paralelo, cada um
+ * devolvendo só as primeiras offset + size linhas na ordem pedida, e as listas
+ * são intercaladas (k-way merge) respeitando a mesma ordem.
+ *
+ * Os templates dos shards têm o timeout e o fetch size das leituras da API
+ * (client.query.*). O teto de linhas é o offset máximo das listagens com
+ * shards mais uma página, que é o máximo que um shard devolve; o
+ * QueryGovernor rejeita páginas mais fundas (client.sharding.max-offset).
+ *
+ * Cada shard tem o próprio executor, do tamanho do seu pool de conexões e com
+ * fila limitada: um shard lento só enche o próprio executor, e as listagens
+ * falham (503) quando a fila dele está cheia ou quando ele não responde dentro
+ * de queryTimeoutMs, em vez de prender a requisição. Com um único shard a
+ * consulta roda na thread da requisição.
+ */
+public class ShardedClientRepository extends ClientReadRepository implements AutoCloseable {
+
+	private final List<DataSource> dataSources;
+	private final List<NamedParameterJdbcTemplate> shards = new ArrayList<>();
+	private final List<ExecutorService> executores = new ArrayList<>();
+	private final long queryTimeoutMs;
+	private final int maxRows;
+
+	public ShardedClientRepository(List<DataSource> dataSources, int poolSize, long queryTimeoutMs, int maxRows,
+			int fetchSize) {
+		/* todas as leituras são sobrescritas e vão aos shards */
+		super(null);
+		this.dataSources = dataSources;
+		this.queryTimeoutMs = queryTimeoutMs;
+		this.maxRows = maxRows;
+		for (int i = 0; i < dataSources.size(); i++) {
+			shards.add(template(dataSources.get(i), maxRows, queryTimeoutMs, fetchSize));
+			if (dataSources.size() > 1) {
+				executores.add(executor(i, poolSize));
+			}
+		}
+	}
+
+	private static ExecutorService executor(int shard, int poolSize) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(poolSize * 4), r -> {
+					Thread t = new Thread(r, "clients-shard-" + shard + "-query");
+					t.setDaemon(true);
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	public int getShardCount() {
+		return shards.size();
+	}
+
+	public int shardDoCpf(String cpfNormalizado) {
+		return (int) Math.floorMod(Validador.cpfComoLong(cpfNormalizado), (long) shards.size());
+	}
+
+	private int shardDoId(long id) {
+		return (int) (id % shards.size());
+	}
+
+	private long idLocal(long id) {
+		return id / shards.size();
+	}
+
+	private long idGlobal(long idLocal, int shard) {
+		return idLocal * shards.size() + shard;
+	}
+
+	@Override
+	public Optional<ClientDTO> findById(long id, ClientFields campos) {
+		ClientFields projecao = campos.com(ClientFields.ID).com(ClientFields.VERSION);
+		List<ClientDTO> list = shards.get(shardDoId(id)).query(
+				"SELECT " + projecao.colunas() + " FROM tb_client WHERE id = :id",
+				new MapSqlParameterSource("id", idLocal(id)), mapper(shardDoId(id), projecao));
+		return list.isEmpty() ? Optional.empty() : Optional.of(restringir(list, campos).get(0));
+	}
+
+	public Optional<Long> findVersionById(long id) {
+		List<Long> list = shards.get(shardDoId(id)).queryForList("SELECT version FROM tb_client WHERE id = :id",
+				new MapSqlParameterSource("id", idLocal(id)), Long.class);
+		return list.isEmpty() ? Optional.empty() : Optional.ofNullable(list.get(0));
+	}
+
+	public boolean existsById(long id) {
+		return shards.get(shardDoId(id)).queryForObject(
+				"SELECT COUNT(*) FROM tb_client WHERE id = :id", new MapSqlParameterSource("id", idLocal(id)),
+				Long.class) > 0;
+	}
+
+	public ClientDTO insert(ClientDTO dto) {
+		int shard = shardDoCpf(dto.getCpf());
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		shards.get(shard).update("INSERT INTO tb_client (name, cpf, income, birth_date, children, version) "
+				+ "VALUES (:name, :cpf, :income, :birthDate, :children, 0)", parametros(dto), keyHolder, new String[] { "id" });
+		ClientDTO salvo = new ClientDTO(idGlobal(keyHolder.getKey().longValue(), shard), dto.getName(), dto.getCpf(),
+				dto.getIncome(), dto.getBirthDate(), dto.getChildren());
+		salvo.setVersion(0L);
+		return salvo;
+	}
+
+	/*
+	 * Carga em massa: as linhas são agrupadas pelo shard do CPF e cada grupo é
+	 * um INSERT em lote na transação do próprio shard. Devolve os ids globais
+	 * na ordem da lista. Não há transação entre shards: se um shard falha, os
+	 * grupos já gravados nos shards anteriores permanecem.
+	 *
+	 * Por isso cada linha leva uma chave de importação (import_key, única no
+	 * shard). Antes do INSERT o grupo procura as chaves que já estão no shard e
+	 * só insere as que faltam; as já gravadas devolvem o id existente. Repetir
+	 * o mesmo lote depois de uma falha parcial não duplica clientes.
+	 */
+	public long[] insertBatch(List<Client> clients, List<String> chaves) {
+		List<List<Integer>> posicoes = new ArrayList<>();
+		for (int i = 0; i < shards.size(); i++) {
+			posicoes.add(new ArrayList<>());
+		}
+		for (int i = 0; i < clients.size(); i++) {
+			posicoes.get(shardDoCpf(clients.get(i).getCpf())).add(i);
+		}
+		long[] ids = new long[clients.size()];
+		for (int shard = 0; shard < shards.size(); shard++) {
+			if (!posicoes.get(shard).isEmpty()) {
+				try {
+					inserirLote(shard, clients, chaves, posicoes.get(shard), ids);
+				} catch (SQLException e) {
+					throw new DataAccessResourceFailureException("Batch insert failed on shard " + shard, e);
+				}
+			}
+		}
+		return ids;
+	}
+
+	private void inserirLote(int shard, List<Client> clients, List<String> chaves, List<Integer> posicoes, long[] ids)
+			throws SQLException {
+		try (Connection connection = dataSources.get(shard).getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try {
+				List<Integer> novas = new ArrayList<>(posicoes);
+				Map<String, Long> gravadas = chavesGravadas(connection, chaves, posicoes);
+				if (!gravadas.isEmpty()) {
+					novas.clear();
+					for (int posicao : posicoes) {
+						Long existente = gravadas.get(chaves.get(posicao));
+						if (existente != null) {
+							ids[posicao] = idGlobal(existente, shard);
+						} else {
+							novas.add(posicao);
+						}
+					}
+				}
+				if (!novas.isEmpty()) {
+					inserirNovas(connection, shard, clients, chaves, novas, ids);
+				}
+				connection.commit();
+			} catch (SQLException | RuntimeException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		}
+	}
+
+	private static Map<String, Long> chavesGravadas(Connection connection, List<String> chaves, List<Integer> posicoes)
+			throws SQLException {
+		Map<String, Long> gravadas = new HashMap<>();
+		if (chaves == null) {
+			return gravadas;
+		}
+		StringBuilder sql = new StringBuilder("SELECT id, import_key FROM tb_client WHERE import_key IN (");
+		for (int i = 0; i < posicoes.size(); i++) {
+			sql.append(i == 0 ? "?" : ", ?");
+		}
+		try (PreparedStatement ps = connection.prepareStatement(sql.append(')').toString())) {
+			for (int i = 0; i < posicoes.size(); i++) {
+				ps.setString(i + 1, chaves.get(posicoes.get(i)));
+			}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					gravadas.put(rs.getString(2), rs.getLong(1));
+				}
+			}
+		}
+		return gravadas;
+	}
+
+	private void inserirNovas(Connection connection, int shard, List<Client> clients, List<String> chaves,
+			List<Integer> posicoes, long[] ids) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement("INSERT INTO tb_client "
+				+ "(name, cpf, income, birth_date, children, version, import_key) VALUES (?, ?, ?, ?, ?, 0, ?)",
+				new String[] { "id" })) {
+			for (int posicao : posicoes) {
+				Client client = clients.get(posicao);
+				ps.setString(1, client.getName());
+				ps.setString(2, client.getCpf());
+				ps.setObject(3, client.getIncome(), Types.DOUBLE);
+				ps.setTimestamp(4, client.getBirthDate() == null ? null : Timestamp.from(client.getBirthDate()));
+				ps.setObject(5, client.getChildren(), Types.INTEGER);
+				ps.setString(6, chaves == null ? null : chaves.get(posicao));
+				ps.addBatch();
+			}
+			ps.executeBatch();
+			try (ResultSet keys = ps.getGeneratedKeys()) {
+				int i = 0;
+				while (keys.next() && i < posicoes.size()) {
+					ids[posicoes.get(i++)] = idGlobal(keys.getLong(1), shard);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Mesma semântica do ClientRepository: com expectedVersion o UPDATE só
+	 * acontece se a versão bater; a versão é sempre incrementada.
+	 */
+	public int update(long id, Long expectedVersion, ClientDTO dto) {
+		MapSqlParameterSource params = parametros(dto);
+		return atualizar(id, expectedVersion,
+				"name = :name, cpf = :cpf, income = :income, birth_date = :birthDate, children = :children", params);
+	}
+
+	public int updateFields(long id, Long expectedVersion, Map<String, Object> campos) {
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		StringBuilder set = new StringBuilder();
+		for (Map.Entry<String, Object> campo : campos.entrySet()) {
+			if (set.length() > 0) {
+				set.append(", ");
+			}
+			set.append(coluna(campo.getKey())).append(" = :").append(campo.getKey());
+			params.addValue(campo.getKey(), valorJdbc(campo.getValue()));
+		}
+		return atualizar(id, expectedVersion, set.toString(), params);
+	}
+
+	public int deleteById(long id) {
+		return shards.get(shardDoId(id)).update("DELETE FROM tb_client WHERE id = :id",
+				new MapSqlParameterSource("id", idLocal(id)));
+	}
+
+	public Long findMaxId() {
+		return limite("MAX", Comparator.naturalOrder());
+	}
+
+	public Long findMinId() {
+		return limite("MIN", Comparator.reverseOrder());
+	}
+
+	@Override
+	public Page<ClientDTO> findAll(Pageable pageable, ClientFields campos) {
+		return page(null, new MapSqlParameterSource(), pageable, campos);
+	}
+
+	@Override
+	public Page<ClientDTO> findByIncome(double income, Pageable pageable, ClientFields campos) {
+		return page("income = :income", new MapSqlParameterSource("income", income), pageable, campos);
+	}
+
+	@Override
+	public Page<ClientDTO> findByIncomeGreaterThan(double income, Pageable pageable, ClientFields campos) {
+		return page("income > :income", new MapSqlParameterSource("income", income), pageable, campos);
+	}
+
+	@Override
+	public Page<ClientDTO> findByCpfLike(String cpf, Pageable pageable, ClientFields campos) {
+		return page("cpf LIKE :cpf", new MapSqlParameterSource("cpf", cpf), pageable, campos);
+	}
+
+	@Override
+	public Page<ClientDTO> search(ClientSearchCriteria criteria, Pageable pageable, ClientFields campos) {
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		return page(criteria.where(params), params, pageable, campos);
+	}
+
+	@Override
+	public void close() {
+		for (ExecutorService executor : executores) {
+			executor.shutdown();
+		}
+		for (DataSource dataSource : dataSources) {
+			if (dataSource instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) dataSource).close();
+				} catch (Exception e) {
+					// pool já fechado
+				}
+			}
+		}
+	}
+
+	private int atualizar(long id, Long expectedVersion, String set, MapSqlParameterSource params) {
+		StringBuilder sql = new StringBuilder("UPDATE tb_client SET ").append(set)
+				.append(", version = version + 1 WHERE id = :id");
+		params.addValue("id", idLocal(id));
+		if (expectedVersion != null) {
+			sql.append(" AND version = :expectedVersion");
+			params.addValue("expectedVersion", expectedVersion);
+		}
+		return shards.get(shardDoId(id)).update(sql.toString(), params);
+	}
+
+	private Long limite(String funcao, Comparator<Long> ordem) {
+		Long resultado = null;
+		for (int shard = 0; shard < shards.size(); shard++) {
+			Long local = shards.get(shard).getJdbcTemplate()
+					.queryForObject("SELECT " + funcao + "(id) FROM tb_client", Long.class);
+			if (local != null) {
+				long global = idGlobal(local, shard);
+				resultado = resultado == null || ordem.compare(global, resultado) > 0 ? global : resultado;
+			}
+		}
+		return resultado;
+	}
+
+	/*
+	 * O id entra sempre como último critério, no SQL e na comparação: dentro de
+	 * um shard a ordem dos ids locais é a mesma dos ids globais.
+	 */
+	private Page<ClientDTO> page(String where, MapSqlParameterSource params, Pageable pageable, ClientFields campos) {
+		String filtro = where == null ? "" : " WHERE " + where;
+		Sort sort = pageable.getSort().getOrderFor("id") == null ? pageable.getSort().and(Sort.by("id"))
+				: pageable.getSort();
+		ClientFields projecao = projecao(campos, sort);
+		StringBuilder sql = new StringBuilder("SELECT ").append(projecao.colunas()).append(" FROM tb_client").append(filtro)
+				.append(orderBy(sort));
+		long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+		if (pageable.isPaged()) {
+			/* acima do teto o max-rows cortaria a página em silêncio */
+			if (offset + pageable.getPageSize() > maxRows) {
+				throw new QueryRejectedException("Pagination deeper than " + (maxRows - pageable.getPageSize())
+						+ " rows is not supported on sharded listings");
+			}
+			sql.append(" FETCH FIRST :limit ROWS ONLY");
+			params.addValue("limit", offset + pageable.getPageSize());
+		}
+
+		List<List<ClientDTO>> listas = consultarShards(
+				shard -> shards.get(shard).query(sql.toString(), params, mapper(shard, projecao)));
+		List<ClientDTO> content = restringir(intercalar(listas, comparador(sort), offset,
+				pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE), campos);
+		return PageableExecutionUtils.getPage(content, pageable, () -> {
+			long total = 0;
+			for (NamedParameterJdbcTemplate shard : shards) {
+				total += shard.queryForObject("SELECT COUNT(*) FROM tb_client" + filtro, params, Long.class);
+			}
+			return total;
+		});
+	}
+
+	/*
+	 * Um prazo para a requisição inteira: cada futuro espera só o que sobrou
+	 * dele, e o primeiro shard que estoura cancela os demais.
+	 */
+	private List<List<ClientDTO>> consultarShards(Function<Integer, List<ClientDTO>> consulta) {
+		List<List<ClientDTO>> listas = new ArrayList<>();
+		if (executores.isEmpty()) {
+			listas.add(consulta.apply(0));
+			return listas;
+		}
+		List<CompletableFuture<List<ClientDTO>>> parciais = new ArrayList<>();
+		try {
+			for (int shard = 0; shard < shards.size(); shard++) {
+				int s = shard;
+				try {
+					parciais.add(CompletableFuture.supplyAsync(() -> consulta.apply(s), executores.get(s)));
+				} catch (RejectedExecutionException e) {
+					throw new TransientDataAccessResourceException("Shard " + s + " is saturated", e);
+				}
+			}
+			long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queryTimeoutMs);
+			for (int shard = 0; shard < parciais.size(); shard++) {
+				listas.add(aguardar(parciais.get(shard), shard, prazo));
+			}
+			return listas;
+		} finally {
+			for (CompletableFuture<List<ClientDTO>> parcial : parciais) {
+				parcial.cancel(true);
+			}
+		}
+	}
+
+	private List<ClientDTO> aguardar(CompletableFuture<List<ClientDTO>> parcial, int shard, long prazo) {
+		try {
+			return parcial.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException | CancellationException e) {
+			throw new QueryTimeoutException("Shard " + shard + " did not answer within " + queryTimeoutMs + " ms", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QueryTimeoutException("Interrupted while waiting for shard " + shard, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new DataAccessResourceFailureException("Query failed on shard " + shard, e.getCause());
+		}
+	}
+
+	static List<ClientDTO> intercalar(List<List<ClientDTO>> listas, Comparator<ClientDTO> ordem, long offset,
+			int size) {
+		PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, listas.size()),
+				(a, b) -> ordem.compare(listas.get(a[0]).get(a[1]), listas.get(b[0]).get(b[1])));
+		for (int i = 0; i < listas.size(); i++) {
+			if (!listas.get(i).isEmpty()) {
+				heap.add(new int[] { i, 0 });
+			}
+		}
+		List<ClientDTO> resultado = new ArrayList<>(Math.min(size, 1024));
+		long pulados = 0;
+		while (!heap.isEmpty() && resultado.size() < size) {
+			int[] cursor = heap.poll();
+			ClientDTO dto = listas.get(cursor[0]).get(cursor[1]);
+			if (pulados < offset) {
+				pulados++;
+			} else {
+				resultado.add(dto);
+			}
+			if (++cursor[1] < listas.get(cursor[0]).size()) {
+				heap.add(cursor);
+			}
+		}
+		return resultado;
+	}
+
+	/*
+	 * Nulos vêm primeiro em ordem ascendente, como no H2.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static Comparator<ClientDTO> comparador(Sort sort) {
+		Comparator<ClientDTO> resultado = null;
+		for (Sort.Order order : sort) {
+			Function<ClientDTO, Comparable> campo = extrator(order.getProperty());
+			Comparator<ClientDTO> atual = Comparator.comparing(campo, Comparator.nullsFirst(Comparator.naturalOrder()));
+			if (order.isDescending()) {
+				atual = atual.reversed();
+			}
+			resultado = resultado == null ? atual : resultado.thenComparing(atual);
+		}
+		return resultado;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static Function<ClientDTO, Comparable> extrator(String propriedade) {
+		switch (coluna(propriedade)) {
+		case "id":
+			return ClientDTO::getId;
+		case "name":
+			return ClientDTO::getName;
+		case "cpf":
+			return ClientDTO::getCpf;
+		case "income":
+			return ClientDTO::getIncome;
+		case "birth_date":
+			return ClientDTO::getBirthDate;
+		case "children":
+			return ClientDTO::getChildren;
+		default:
+			return ClientDTO::getVersion;
+		}
+	}
+
+	private RowMapper<ClientDTO> mapper(int shard, ClientFields projecao) {
+		RowMapper<ClientDTO> mapper = mapper(projecao);
+		return (rs, rowNum) -> {
+			ClientDTO dto = mapper.mapRow(rs, rowNum);
+			dto.setId(idGlobal(dto.idValue(), shard));
+			return dto;
+		};
+	}
+
+	private static MapSqlParameterSource parametros(ClientDTO dto) {
+		return new MapSqlParameterSource("name", dto.getName())
+				.addValue("cpf", dto.getCpf())
+				.addValue("income", dto.getIncome())
+				.addValue("birthDate", valorJdbc(dto.getBirthDate()))
+				.addValue("children", dto.getChildren());
+	}
+
+	private static Object valorJdbc(Object valor) {
+		return valor instanceof Instant ? Timestamp.from((Instant) valor) : valor;
+	}
+
+}
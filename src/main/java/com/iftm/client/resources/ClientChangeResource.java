@@ -0,0 +1,188 @@
+package com.iftm.client.resources;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.services.ClientChangeService;
+import com.iftm.client.services.util.QueryGovernor;
+
+/*
+ * Sincronização incremental: GET /clients/changes?since=<seq> devolve as
+ * mudanças depois do cursor, e /clients/changes/stream mantém um SSE aberto
+ * que primeiro repete o que ficou para trás e depois recebe as mudanças novas.
+ * O id de cada evento é o seq (Last-Event-ID na reconexão).
+ *
+ * O SSE não repassa o evento de cada commit: ele só avisa que há novidade, e
+ * o envio relê o feed a partir do cursor de cada assinante com a mesma regra
+ * de lacunas do GET (ver ClientChangeService). Assim um seq menor que ainda
+ * não fez commit nunca é ultrapassado. A releitura também roda a cada pollMs,
+ * para entregar as linhas retidas por uma lacuna e as escritas de outros nós.
+ */
+@RestController
+@RequestMapping(value = "/clients/changes")
+public class ClientChangeResource {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientChangeResource.class);
+
+	@Autowired
+	private ClientChangeService service;
+
+	@Autowired
+	private QueryGovernor governor;
+
+	@Value("${client.changes.sse-timeout-ms:1800000}")
+	private long sseTimeoutMs;
+
+	@Value("${client.changes.replay-limit:1000}")
+	private int replayLimit;
+
+	@Value("${client.changes.poll-ms:1000}")
+	private long pollMs;
+
+	private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean entregaAgendada = new AtomicBoolean();
+
+	/*
+	 * Envio fora da thread que fez o commit: um assinante lento não atrasa a
+	 * resposta da escrita.
+	 */
+	private final ScheduledExecutorService envio = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "client-changes-sse");
+		t.setDaemon(true);
+		return t;
+	});
+
+	@PostConstruct
+	public void iniciar() {
+		envio.scheduleWithFixedDelay(this::entregar, pollMs, pollMs, TimeUnit.MILLISECONDS);
+	}
+
+	@GetMapping
+	public ResponseEntity<List<ClientChangeDTO>> findSince(
+			@RequestParam(value = "since", defaultValue = "0") Long since,
+			@RequestParam(value = "limit", defaultValue = "100") Integer limit) {
+		int max = governor.limit(QueryGovernor.CHANGES, limit);
+		return ResponseEntity.ok().body(service.findSince(since, max));
+	}
+
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream(@RequestParam(value = "since", required = false) Long since,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		Assinante assinante = new Assinante(new SseEmitter(sseTimeoutMs));
+		assinante.emitter.onCompletion(() -> assinantes.remove(assinante));
+		assinante.emitter.onTimeout(() -> assinantes.remove(assinante));
+		assinante.emitter.onError(e -> assinantes.remove(assinante));
+		Long inicio = lastEventId != null ? lastEventId : since;
+		/*
+		 * Replay na própria requisição, segurando o assinante: o envio de
+		 * novidades espera o replay terminar e continua do cursor dele.
+		 */
+		synchronized (assinante) {
+			assinantes.add(assinante);
+			if (inicio == null) {
+				assinante.cursor = service.cursorAtual();
+			} else {
+				assinante.cursor = inicio;
+				enviar(assinante, service.findSince(inicio, replayLimit));
+			}
+		}
+		return assinante.emitter;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void publicar(ClientChangeDTO change) {
+		if (!assinantes.isEmpty() && entregaAgendada.compareAndSet(false, true)) {
+			envio.execute(() -> {
+				entregaAgendada.set(false);
+				entregar();
+			});
+		}
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		envio.shutdownNow();
+		for (Assinante assinante : assinantes) {
+			assinante.emitter.complete();
+		}
+	}
+
+	/*
+	 * Uma leitura do feed a partir do menor cursor serve todos os assinantes;
+	 * cada um recebe só o que está depois do próprio cursor.
+	 */
+	private void entregar() {
+		try {
+			List<ClientChangeDTO> mudancas;
+			do {
+				if (assinantes.isEmpty()) {
+					return;
+				}
+				long menor = Long.MAX_VALUE;
+				for (Assinante assinante : assinantes) {
+					menor = Math.min(menor, assinante.cursor);
+				}
+				mudancas = service.findSince(menor, replayLimit);
+				for (Assinante assinante : assinantes) {
+					synchronized (assinante) {
+						enviar(assinante, mudancas);
+					}
+				}
+			} while (mudancas.size() == replayLimit);
+		} catch (RuntimeException e) {
+			/* a próxima rodada (pollMs) tenta de novo do mesmo cursor */
+			LOG.warn("Change feed delivery failed: {}", e.toString());
+		}
+	}
+
+	private void enviar(Assinante assinante, List<ClientChangeDTO> mudancas) {
+		for (ClientChangeDTO change : mudancas) {
+			if (change.getSeq() <= assinante.cursor) {
+				continue;
+			}
+			try {
+				assinante.emitter.send(SseEmitter.event().id(String.valueOf(change.getSeq()))
+						.name("client-change").data(change, MediaType.APPLICATION_JSON));
+				assinante.cursor = change.getSeq();
+			} catch (IOException | IllegalStateException e) {
+				assinantes.remove(assinante);
+				assinante.emitter.completeWithError(e);
+				return;
+			}
+		}
+	}
+
+	private static final class Assinante {
+		final SseEmitter emitter;
+		volatile long cursor;
+
+		Assinante(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.iftm.client.resources;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.iftm.client.dto.ClientDuplicateReportDTO;
+import com.iftm.client.dto.ClientMergeSuggestionDTO;
+import com.iftm.client.services.bulk.ClientDuplicateService;
+import com.iftm.client.services.util.QueryGovernor;
+
+/*
+ * POST /clients/duplicates/scan executa a detecção de duplicados (síncrona,
+ * uma execução por vez: a segunda recebe 409) e GET /clients/duplicates
+ * pagina as sugestões da última execução, por padrão as mais parecidas primeiro.
+ */
+@RestController
+@RequestMapping(value = "/clients/duplicates")
+public class ClientDuplicateResource {
+
+	@Autowired
+	private ClientDuplicateService service;
+
+	@Autowired
+	private QueryGovernor governor;
+
+	@PostMapping(value = "/scan")
+	public ResponseEntity<ClientDuplicateReportDTO> scan() {
+		ClientDuplicateReportDTO relatorio = service.executar();
+		HttpStatus status = "COMPLETED".equals(relatorio.getStatus()) ? HttpStatus.OK
+				: "ALREADY_RUNNING".equals(relatorio.getStatus()) ? HttpStatus.CONFLICT
+						: HttpStatus.INTERNAL_SERVER_ERROR;
+		return ResponseEntity.status(status).body(relatorio);
+	}
+
+	@GetMapping
+	public ResponseEntity<Page<ClientMergeSuggestionDTO>> findSuggestions(
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "DESC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "score") String orderBy) {
+		PageRequest pageRequest = governor.pageRequest(QueryGovernor.DUPLICATES, page, linesPerPage, direction, orderBy);
+		return ResponseEntity.ok().body(service.findSuggestions(pageRequest));
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.iftm.client.resources;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.iftm.client.dto.ClientImportReportDTO;
+import com.iftm.client.services.bulk.ClientImportService;
+import com.iftm.client.services.bulk.ClientRowParser;
+
+/*
+ * POST /clients/import com o arquivo no corpo (text/csv ou application/x-ndjson).
+ * O corpo é lido em streaming direto do request. Em caso de falha a resposta
+ * traz o checkpoint e o importId: reenviar o mesmo arquivo com
+ * resumeFrom=<checkpoint>&importId=<importId>. Sem importId a importação
+ * recebe um novo (UUID); com o mesmo importId as linhas que já tinham chegado
+ * aos shards não são inseridas de novo.
+ */
+@RestController
+@RequestMapping(value = "/clients/import")
+public class ClientImportResource {
+
+	public static final String APPLICATION_NDJSON = "application/x-ndjson";
+	private static final int MAX_IMPORT_ID = 36;
+
+	@Autowired
+	private ClientImportService service;
+
+	@PostMapping(consumes = { "text/csv", APPLICATION_NDJSON }, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<ClientImportReportDTO> importar(HttpServletRequest request,
+			@RequestParam(value = "resumeFrom", defaultValue = "0") Long resumeFrom,
+			@RequestParam(value = "importId", required = false) String importId) throws IOException {
+		if (importId != null && (importId.isEmpty() || importId.length() > MAX_IMPORT_ID)) {
+			throw new InvalidParameterException("importId must have between 1 and " + MAX_IMPORT_ID + " characters");
+		}
+		ClientRowParser.Formato formato = request.getContentType().startsWith(APPLICATION_NDJSON)
+				? ClientRowParser.Formato.NDJSON : ClientRowParser.Formato.CSV;
+		ClientImportReportDTO relatorio = service.importar(
+				new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), formato,
+				importId != null ? importId : UUID.randomUUID().toString(), resumeFrom, null);
+		HttpStatus status = "COMPLETED".equals(relatorio.getStatus()) ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR;
+		return ResponseEntity.status(status).body(relatorio);
+	}
+
+}
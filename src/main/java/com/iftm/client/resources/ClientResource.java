@@ -2,52 +2,99 @@ package com.iftm.client.resources;
 
 import java.net.URI;
 import java.security.InvalidParameterException;
+import java.time.Instant;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort.Direction;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFields;
+import com.iftm.client.dto.ClientPatchDTO;
+import com.iftm.client.repositories.ClientSearchCriteria;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.VersionConflictException;
+import com.iftm.client.services.util.ClientGeneration;
+import com.iftm.client.services.util.ClientKeyResolver;
+import com.iftm.client.services.util.IdempotencyStore;
+import com.iftm.client.services.util.QueryGovernor;
+import com.iftm.client.services.util.Validador;
 
 @RestController
 @RequestMapping(value = "/clients")
 public class ClientResource {
+
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
 	
 	@Autowired
 	private ClientService service;
 
+	@Autowired
+	private Validador validador;
+
+	@Autowired
+	private ClientGeneration generation;
+
+	@Autowired
+	private QueryGovernor governor;
+
+	@Autowired
+	private IdempotencyStore idempotency;
+
+	/* Mudança
+	 * GET condicional: as listagens usam a geração da tabela como ETag e
+	 * respondem 304 sem consultar o banco quando nada mudou.
+	 * Aceita também application/cbor e application/x-jackson-smile
+	 * fields= (ex.: id,name,cpf) restringe as colunas lidas e os campos do JSON
+	 */
 	@GetMapping
 	public ResponseEntity<Page<ClientDTO>> findAll(
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
-			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "fields", required = false) String fields,
+			WebRequest request) 
 	{
-		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findAllPaged(pageRequest);
+		PageRequest pageRequest = governor.pageRequest(QueryGovernor.FIND_ALL, page, linesPerPage, direction, orderBy);
+		if (naoModificada(request)) {
+			return null;
+		}
+		Page<ClientDTO> list = service.findAllPaged(pageRequest, ClientFields.parse(fields));
 		return ResponseEntity.ok().body(list);
 	}
 	
 	/*
 	 * Mudança: URI
+	 * Com If-None-Match só a versão do cliente é consultada
 	 */
 	@GetMapping(value = "/id/{id}")
-	public ResponseEntity<ClientDTO> findById(@PathVariable Long id) {
-		ClientDTO dto = service.findById(id);
-		return ResponseEntity.ok().body(dto);
+	public ResponseEntity<ClientDTO> findById(@PathVariable Long id,
+			@RequestParam(value = "fields", required = false) String fields, WebRequest request) {
+		if (request.getHeader("If-None-Match") != null
+				&& request.checkNotModified(String.valueOf(service.findVersionById(id)))) {
+			return null;
+		}
+		ClientDTO dto = service.findById(id, ClientFields.parse(fields));
+		return comEtag(ResponseEntity.ok(), dto).body(dto);
 	}
 	
 	/* Mudança
@@ -59,10 +106,15 @@ public class ClientResource {
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
-			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "fields", required = false) String fields,
+			WebRequest request) 
 	{
-		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findByIncome(pageRequest, income);
+		PageRequest pageRequest = governor.pageRequest(QueryGovernor.INCOME, page, linesPerPage, direction, orderBy);
+		if (naoModificada(request)) {
+			return null;
+		}
+		Page<ClientDTO> list = service.findByIncome(pageRequest, income, ClientFields.parse(fields));
 		return ResponseEntity.ok().body(list);
 	}
 	
@@ -75,10 +127,15 @@ public class ClientResource {
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
-			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "fields", required = false) String fields,
+			WebRequest request) 
 	{
-		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findByIncomeGreaterThan(pageRequest, income);
+		PageRequest pageRequest = governor.pageRequest(QueryGovernor.INCOME_GREATER_THAN, page, linesPerPage, direction, orderBy);
+		if (naoModificada(request)) {
+			return null;
+		}
+		Page<ClientDTO> list = service.findByIncomeGreaterThan(pageRequest, income, ClientFields.parse(fields));
 		return ResponseEntity.ok().body(list);
 	}
 	
@@ -91,29 +148,107 @@ public class ClientResource {
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
-			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "fields", required = false) String fields,
+			WebRequest request) 
 	{
-		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findByCpfLike(pageRequest, "%"+cpf+"%");
+		PageRequest pageRequest = governor.pageRequest(QueryGovernor.CPF, page, linesPerPage, direction, orderBy);
+		if (naoModificada(request)) {
+			return null;
+		}
+		Page<ClientDTO> list = service.findByCpfLike(pageRequest, "%"+validador.normalizarCpfParcial(cpf)+"%",
+				ClientFields.parse(fields));
 		return ResponseEntity.ok().body(list);
 	}
 	
+	/* Mudança
+	 * Novo método: busca combinando nome (prefixo), cpf (completo ou prefixo) e
+	 * faixas de salário, data de nascimento e filhos, em uma única consulta
+	 */
+	@GetMapping(value = "/search")
+	public ResponseEntity<Page<ClientDTO>> search(
+			@RequestParam(value = "name", required = false) String name,
+			@RequestParam(value = "cpf", required = false) String cpf,
+			@RequestParam(value = "incomeMin", required = false) Double incomeMin,
+			@RequestParam(value = "incomeMax", required = false) Double incomeMax,
+			@RequestParam(value = "birthDateFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant birthDateFrom,
+			@RequestParam(value = "birthDateTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant birthDateTo,
+			@RequestParam(value = "childrenMin", required = false) Integer childrenMin,
+			@RequestParam(value = "childrenMax", required = false) Integer childrenMax,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "fields", required = false) String fields,
+			WebRequest request) 
+	{
+		PageRequest pageRequest = governor.pageRequest(QueryGovernor.SEARCH, page, linesPerPage, direction, orderBy);
+		if (naoModificada(request)) {
+			return null;
+		}
+		ClientSearchCriteria criteria = new ClientSearchCriteria().name(name)
+				.cpf(cpf == null ? null : validador.normalizarCpfParcial(cpf))
+				.income(incomeMin, incomeMax)
+				.birthDate(birthDateFrom, birthDateTo)
+				.children(childrenMin, childrenMax);
+		Page<ClientDTO> list = service.search(pageRequest, criteria, ClientFields.parse(fields));
+		return ResponseEntity.ok().body(list);
+	}
+	
+	/* Mudança
+	 * Idempotency-Key: a repetição de um POST com a mesma chave (por X-API-Key)
+	 * devolve o cliente e o Location da primeira, sem inserir de novo
+	 */
 	@PostMapping
-	public ResponseEntity<ClientDTO> insert(@RequestBody ClientDTO dto) {
+	public ResponseEntity<ClientDTO> insert(@RequestBody ClientDTO dto,
+			@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+			@RequestHeader(value = ClientKeyResolver.API_KEY_HEADER, required = false) String apiKey) {
 		try {
-			dto = service.insert(dto);
-			URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
-				.buildAndExpand(dto.getId()).toUri();
-			return ResponseEntity.created(uri).body(dto);
+			if (idempotencyKey == null) {
+				dto = service.insert(dto);
+				return ResponseEntity.created(location(dto)).body(dto);
+			}
+			ClientDTO requisicao = dto;
+			String chave = (apiKey == null ? "" : apiKey) + ":" + idempotencyKey;
+			IdempotencyStore.Resultado resultado = idempotency.executar(chave, requisicao,
+					() -> service.insert(requisicao));
+			return ResponseEntity.created(location(resultado.getDto()))
+					.header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(resultado.isRepetido()))
+					.body(resultado.getDto());
 		}catch(InvalidParameterException e) {
 			return ResponseEntity.unprocessableEntity().build();
 		}
 	}
+
+	private static URI location(ClientDTO dto) {
+		return ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(dto.getId()).toUri();
+	}
 	
+	/* Mudança
+	 * If-Match: o ETag (versão) do cliente torna o update condicional
+	 */
 	@PutMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> update(@PathVariable Long id, @RequestBody ClientDTO dto) {
+	public ResponseEntity<ClientDTO> update(@PathVariable Long id, @RequestBody ClientDTO dto,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch) {
+		if (ifMatch != null && !ifMatch.trim().equals("*")) {
+			dto.setVersion(versaoDoEtag(ifMatch));
+		}
 		dto = service.update(id, dto);
-		return ResponseEntity.ok().body(dto);
+		return comEtag(ResponseEntity.ok(), dto).body(dto);
+	}
+	
+	/* Mudança
+	 * Novo método: atualização parcial (JSON Merge Patch), só as colunas enviadas
+	 */
+	@PatchMapping(value = "/{id}", consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE })
+	public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody ClientPatchDTO patch,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch) {
+		if (ifMatch != null && !ifMatch.trim().equals("*")) {
+			patch.setVersion(versaoDoEtag(ifMatch));
+		}
+		Long version = service.patch(id, patch);
+		ResponseEntity.HeadersBuilder<?> builder = ResponseEntity.noContent();
+		return (version == null ? builder : builder.eTag(String.valueOf(version))).build();
 	}
 	
 	@DeleteMapping(value = "/{id}")
@@ -121,4 +256,34 @@ public class ClientResource {
 		service.delete(id);
 		return ResponseEntity.noContent().build();
 	}
-}
\ No newline at end of file
+
+	/*
+	 * A geração é lida antes da consulta e guardada na requisição: o ETag da
+	 * resposta 200 sai dela no CompactPageResponseAdvice, com o sufixo do formato
+	 * que o conversor escolheu. Aqui, antes da consulta, o formato vem do Accept
+	 * negociado por qualidade.
+	 */
+	private boolean naoModificada(WebRequest request) {
+		long geracao = generation.atual();
+		request.setAttribute(CompactPageResponseAdvice.GERACAO_ATTRIBUTE, geracao, RequestAttributes.SCOPE_REQUEST);
+		return request.getHeader("If-None-Match") != null && request.checkNotModified(
+				generation.etag(geracao, CompactPageResponseAdvice.variante(request.getHeader("Accept"))));
+	}
+
+	private ResponseEntity.BodyBuilder comEtag(ResponseEntity.BodyBuilder builder, ClientDTO dto) {
+		return dto.getVersion() == null ? builder : builder.eTag(String.valueOf(dto.getVersion()));
+	}
+
+	private Long versaoDoEtag(String etag) {
+		String valor = etag.trim();
+		if (valor.startsWith("W/")) {
+			valor = valor.substring(2);
+		}
+		valor = valor.replace("\"", "");
+		try {
+			return Long.valueOf(valor);
+		} catch (NumberFormatException e) {
+			throw new VersionConflictException("Invalid If-Match : " + etag);
+		}
+	}
+}
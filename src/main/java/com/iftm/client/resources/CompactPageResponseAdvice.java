@@ -0,0 +1,120 @@
+package com.iftm.client.resources;
+
+import java.util.List;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.iftm.client.dto.CompactPageDTO;
+import com.iftm.client.services.util.ClientGeneration;
+
+/*
+ * Quando o cliente negocia CBOR ou Smile (chamadas entre serviços), a página
+ * sai no envelope enxuto; em JSON o formato de Page continua o mesmo.
+ *
+ * O ETag das listagens também é fechado aqui: a geração lida pelo controller
+ * antes da consulta, com o sufixo do formato que o conversor escolheu.
+ */
+@ControllerAdvice(assignableTypes = ClientResource.class)
+public class CompactPageResponseAdvice implements ResponseBodyAdvice<Object> {
+
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+	public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+	public static final String GERACAO_ATTRIBUTE = CompactPageResponseAdvice.class.getName() + ".geracao";
+
+	private final ClientGeneration generation;
+
+	public CompactPageResponseAdvice(ClientGeneration generation) {
+		this.generation = generation;
+	}
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		if (!(body instanceof Page)) {
+			return body;
+		}
+		response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		marcarEtag(request, response, variante(selectedContentType));
+		return isBinario(selectedContentType) ? new CompactPageDTO<>((Page<?>) body) : body;
+	}
+
+	/*
+	 * O checkNotModified do controller já pode ter gravado um ETag direto na
+	 * resposta do servlet; setHeader substitui em vez de repetir o cabeçalho.
+	 */
+	private void marcarEtag(ServerHttpRequest request, ServerHttpResponse response, String variante) {
+		if (!(request instanceof ServletServerHttpRequest) || !(response instanceof ServletServerHttpResponse)) {
+			return;
+		}
+		Object geracao = ((ServletServerHttpRequest) request).getServletRequest().getAttribute(GERACAO_ATTRIBUTE);
+		if (geracao instanceof Long) {
+			((ServletServerHttpResponse) response).getServletResponse().setHeader(HttpHeaders.ETAG,
+					generation.etag((Long) geracao, variante));
+		}
+	}
+
+	/*
+	 * Sufixo do ETag para o formato da resposta.
+	 */
+	public static String variante(MediaType mediaType) {
+		if (mediaType == null) {
+			return null;
+		}
+		if (MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType)) {
+			return "cbor";
+		}
+		return APPLICATION_SMILE.isCompatibleWith(mediaType) ? "smile" : null;
+	}
+
+	/*
+	 * Sufixo esperado antes da consulta (If-None-Match), pela mesma ordem do
+	 * conversor: tipos do Accept por especificidade e qualidade, ignorando q=0.
+	 * Curingas caem no JSON, que é o primeiro conversor.
+	 */
+	public static String variante(String accept) {
+		if (accept == null) {
+			return null;
+		}
+		List<MediaType> tipos;
+		try {
+			tipos = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			return null;
+		}
+		MediaType.sortBySpecificityAndQuality(tipos);
+		for (MediaType tipo : tipos) {
+			if (tipo.getQualityValue() == 0) {
+				continue;
+			}
+			if (tipo.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+				return null;
+			}
+			if (isBinario(tipo)) {
+				return variante(tipo);
+			}
+		}
+		return null;
+	}
+
+	public static boolean isBinario(MediaType mediaType) {
+		return MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType) || APPLICATION_SMILE.isCompatibleWith(mediaType);
+	}
+
+}
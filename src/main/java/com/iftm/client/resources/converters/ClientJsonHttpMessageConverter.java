@@ -0,0 +1,242 @@
+package com.iftm.client.resources.converters;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Instant;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFields;
+
+/*
+ * Serializador sem reflexão para ClientDTO e Page<ClientDTO>: escreve direto no
+ * stream da resposta via JsonGenerator, com os nomes dos campos pré-codificados
+ * e os números lidos dos acessores primitivos do DTO (sem boxing).
+ * O buffer do gerador é reciclado pelo próprio JsonFactory. A saída é idêntica
+ * à do ObjectMapper do Spring (inclusive os metadados de Page); com fields= só
+ * os campos pedidos são escritos.
+ */
+public class ClientJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	private static final SerializableString ID = new SerializedString("id");
+	private static final SerializableString NAME = new SerializedString("name");
+	private static final SerializableString CPF = new SerializedString("cpf");
+	private static final SerializableString INCOME = new SerializedString("income");
+	private static final SerializableString BIRTH_DATE = new SerializedString("birthDate");
+	private static final SerializableString CHILDREN = new SerializedString("children");
+	private static final SerializableString VERSION = new SerializedString("version");
+
+	private static final SerializableString CONTENT = new SerializedString("content");
+	private static final SerializableString PAGEABLE = new SerializedString("pageable");
+	private static final SerializableString SORT = new SerializedString("sort");
+	private static final SerializableString SORTED = new SerializedString("sorted");
+	private static final SerializableString UNSORTED = new SerializedString("unsorted");
+	private static final SerializableString EMPTY = new SerializedString("empty");
+	private static final SerializableString OFFSET = new SerializedString("offset");
+	private static final SerializableString PAGE_NUMBER = new SerializedString("pageNumber");
+	private static final SerializableString PAGE_SIZE = new SerializedString("pageSize");
+	private static final SerializableString PAGED = new SerializedString("paged");
+	private static final SerializableString UNPAGED = new SerializedString("unpaged");
+	private static final SerializableString TOTAL_PAGES = new SerializedString("totalPages");
+	private static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
+	private static final SerializableString LAST = new SerializedString("last");
+	private static final SerializableString SIZE = new SerializedString("size");
+	private static final SerializableString NUMBER = new SerializedString("number");
+	private static final SerializableString NUMBER_OF_ELEMENTS = new SerializedString("numberOfElements");
+	private static final SerializableString FIRST = new SerializedString("first");
+
+	private final JsonFactory jsonFactory;
+
+	public ClientJsonHttpMessageConverter() {
+		super(MediaType.APPLICATION_JSON);
+		this.jsonFactory = new JsonFactory();
+		this.jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return ClientDTO.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		return isClientType(type != null ? type : clazz) && canWrite(mediaType);
+	}
+
+	private static boolean isClientType(Type type) {
+		if (type instanceof Class) {
+			return ClientDTO.class.isAssignableFrom((Class<?>) type);
+		}
+		if (type instanceof ParameterizedType) {
+			ParameterizedType parameterized = (ParameterizedType) type;
+			Type[] args = parameterized.getActualTypeArguments();
+			return parameterized.getRawType() instanceof Class
+					&& Page.class.isAssignableFrom((Class<?>) parameterized.getRawType())
+					&& args.length == 1 && args[0] instanceof Class
+					&& ClientDTO.class.isAssignableFrom((Class<?>) args[0]);
+		}
+		return false;
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+	}
+
+	@Override
+	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+	}
+
+	@Override
+	protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+		try (JsonGenerator gen = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+			if (body instanceof Page) {
+				writePage(gen, (Page<?>) body);
+			} else {
+				writeClient(gen, (ClientDTO) body);
+			}
+		}
+	}
+
+	private static void writeClient(JsonGenerator gen, ClientDTO dto) throws IOException {
+		if (dto == null) {
+			gen.writeNull();
+			return;
+		}
+		gen.writeStartObject();
+		if (dto.temCampo(ClientFields.ID)) {
+			gen.writeFieldName(ID);
+			if (dto.hasId()) {
+				gen.writeNumber(dto.idValue());
+			} else {
+				gen.writeNull();
+			}
+		}
+		if (dto.temCampo(ClientFields.NAME)) {
+			gen.writeFieldName(NAME);
+			gen.writeString(dto.getName());
+		}
+		if (dto.temCampo(ClientFields.CPF)) {
+			gen.writeFieldName(CPF);
+			gen.writeString(dto.getCpf());
+		}
+		if (dto.temCampo(ClientFields.INCOME)) {
+			gen.writeFieldName(INCOME);
+			if (dto.hasIncome()) {
+				gen.writeNumber(dto.incomeValue());
+			} else {
+				gen.writeNull();
+			}
+		}
+		if (dto.temCampo(ClientFields.BIRTH_DATE)) {
+			gen.writeFieldName(BIRTH_DATE);
+			writeInstant(gen, dto.getBirthDate());
+		}
+		if (dto.temCampo(ClientFields.CHILDREN)) {
+			gen.writeFieldName(CHILDREN);
+			if (dto.hasChildren()) {
+				gen.writeNumber(dto.childrenValue());
+			} else {
+				gen.writeNull();
+			}
+		}
+		if (dto.temCampo(ClientFields.VERSION)) {
+			gen.writeFieldName(VERSION);
+			if (dto.hasVersion()) {
+				gen.writeNumber(dto.versionValue());
+			} else {
+				gen.writeNull();
+			}
+		}
+		gen.writeEndObject();
+	}
+
+	private static void writePage(JsonGenerator gen, Page<?> page) throws IOException {
+		gen.writeStartObject();
+		gen.writeFieldName(CONTENT);
+		gen.writeStartArray();
+		for (Object item : page.getContent()) {
+			writeClient(gen, (ClientDTO) item);
+		}
+		gen.writeEndArray();
+		gen.writeFieldName(PAGEABLE);
+		Pageable pageable = page.getPageable();
+		if (pageable.isPaged()) {
+			gen.writeStartObject();
+			gen.writeFieldName(SORT);
+			writeSort(gen, pageable.getSort());
+			gen.writeFieldName(OFFSET);
+			gen.writeNumber(pageable.getOffset());
+			gen.writeFieldName(PAGE_NUMBER);
+			gen.writeNumber(pageable.getPageNumber());
+			gen.writeFieldName(PAGE_SIZE);
+			gen.writeNumber(pageable.getPageSize());
+			gen.writeFieldName(PAGED);
+			gen.writeBoolean(true);
+			gen.writeFieldName(UNPAGED);
+			gen.writeBoolean(false);
+			gen.writeEndObject();
+		} else {
+			gen.writeString("INSTANCE");
+		}
+		gen.writeFieldName(TOTAL_PAGES);
+		gen.writeNumber(page.getTotalPages());
+		gen.writeFieldName(TOTAL_ELEMENTS);
+		gen.writeNumber(page.getTotalElements());
+		gen.writeFieldName(LAST);
+		gen.writeBoolean(page.isLast());
+		gen.writeFieldName(SIZE);
+		gen.writeNumber(page.getSize());
+		gen.writeFieldName(NUMBER);
+		gen.writeNumber(page.getNumber());
+		gen.writeFieldName(SORT);
+		writeSort(gen, page.getSort());
+		gen.writeFieldName(NUMBER_OF_ELEMENTS);
+		gen.writeNumber(page.getNumberOfElements());
+		gen.writeFieldName(FIRST);
+		gen.writeBoolean(page.isFirst());
+		gen.writeFieldName(EMPTY);
+		gen.writeBoolean(page.isEmpty());
+		gen.writeEndObject();
+	}
+
+	private static void writeSort(JsonGenerator gen, Sort sort) throws IOException {
+		gen.writeStartObject();
+		gen.writeFieldName(SORTED);
+		gen.writeBoolean(sort.isSorted());
+		gen.writeFieldName(UNSORTED);
+		gen.writeBoolean(sort.isUnsorted());
+		gen.writeFieldName(EMPTY);
+		gen.writeBoolean(sort.isEmpty());
+		gen.writeEndObject();
+	}
+
+	private static void writeInstant(JsonGenerator gen, Instant value) throws IOException {
+		if (value == null) {
+			gen.writeNull();
+		} else {
+			gen.writeString(value.toString());
+		}
+	}
+
+}
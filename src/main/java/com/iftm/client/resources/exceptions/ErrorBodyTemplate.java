@@ -0,0 +1,68 @@
+package com.iftm.client.resources.exceptions;
+
+import java.time.Instant;
+
+/*
+ * Corpo de erro pré-serializado: as partes fixas do JSON de StandardError são
+ * montadas uma única vez e a cada resposta só timestamp, mensagem e path são
+ * escritos, sem passar pelo ObjectMapper.
+ */
+public class ErrorBodyTemplate {
+
+	private static final String PREFIXO = "{\"timestamp\":\"";
+	private static final String SUFIXO_MENSAGEM = ",\"path\":";
+
+	private final String meio;
+
+	public ErrorBodyTemplate(int status, String error) {
+		StringBuilder sb = new StringBuilder("\",\"status\":").append(status).append(",\"error\":");
+		escrever(sb, error);
+		sb.append(",\"message\":");
+		this.meio = sb.toString();
+	}
+
+	public String render(Instant timestamp, String message, String path) {
+		StringBuilder sb = new StringBuilder(128 + meio.length());
+		sb.append(PREFIXO).append(timestamp).append(meio);
+		escrever(sb, message);
+		sb.append(SUFIXO_MENSAGEM);
+		escrever(sb, path);
+		return sb.append('}').toString();
+	}
+
+	private static void escrever(StringBuilder sb, String valor) {
+		if (valor == null) {
+			sb.append("null");
+			return;
+		}
+		sb.append('"');
+		for (int i = 0; i < valor.length(); i++) {
+			char c = valor.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+
+}
@@ -1,29 +1,37 @@
 package com.iftm.client.resources.exceptions;
 
+import java.security.InvalidParameterException;
 import java.time.Instant;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.QueryRejectedException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
 
 @ControllerAdvice
 public class ResourceExceptionHandler {
+
+	private static final ErrorBodyTemplate NOT_FOUND_BODY =
+			new ErrorBodyTemplate(HttpStatus.NOT_FOUND.value(), "Resource not found");
 	
+	/*
+	 * Caminho mais frequente sob tráfego de varredura: o corpo (mesmo formato de
+	 * StandardError) sai do template, sem instanciar StandardError nem serializar.
+	 */
 	@ExceptionHandler(ResourceNotFoundException.class)
-	public ResponseEntity<StandardError> entityNotFound(ResourceNotFoundException e, HttpServletRequest request) {
-		StandardError err = new StandardError();
-		err.setTimestamp(Instant.now());
-		err.setStatus(HttpStatus.NOT_FOUND.value());
-		err.setError("Resource not found");
-		err.setMessage(e.getMessage());
-		err.setPath(request.getRequestURI());
-		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(err);
+	public ResponseEntity<String> entityNotFound(ResourceNotFoundException e, HttpServletRequest request) {
+		String body = NOT_FOUND_BODY.render(Instant.now(), e.getMessage(), request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(body);
 	}
 	
 	@ExceptionHandler(DatabaseException.class)
@@ -37,4 +45,63 @@ public class ResourceExceptionHandler {
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
 	}
 
+	@ExceptionHandler(InvalidParameterException.class)
+	public ResponseEntity<StandardError> invalidParameter(InvalidParameterException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+		err.setError("Invalid parameter");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(err);
+	}
+
+	@ExceptionHandler(VersionConflictException.class)
+	public ResponseEntity<StandardError> versionConflict(VersionConflictException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+		err.setError("Version conflict");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(err);
+	}
+
+	@ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+	public ResponseEntity<StandardError> concurrentUpdate(ObjectOptimisticLockingFailureException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.CONFLICT.value());
+		err.setError("Concurrent update");
+		err.setMessage("Resource was modified concurrently, retry the request");
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(err);
+	}
+
+	@ExceptionHandler(QueryRejectedException.class)
+	public ResponseEntity<StandardError> queryRejected(QueryRejectedException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.BAD_REQUEST.value());
+		err.setError("Query rejected");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
+	}
+
+	/*
+	 * Timeout de consulta ou shard saturado: falha passageira, o cliente pode
+	 * tentar de novo.
+	 */
+	@ExceptionHandler(TransientDataAccessException.class)
+	public ResponseEntity<StandardError> transientDataAccess(TransientDataAccessException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		err.setError("Service unavailable");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(err);
+	}
+
 }
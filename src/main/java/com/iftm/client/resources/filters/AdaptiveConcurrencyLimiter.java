@@ -0,0 +1,91 @@
+package com.iftm.client.resources.filters;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Limite de requisições simultâneas ajustado pela latência medida (AIMD). As
+ * amostras são agrupadas em janelas do tamanho da latência alvo (uma "rodada")
+ * e cada janela gera uma única decisão: se a fração de respostas acima do alvo
+ * passou de slowRatio o limite é multiplicado por backoff, senão soma 1. Uma
+ * rajada de respostas lentas dentro da mesma janela reduz o limite uma vez só.
+ *
+ * Quem fecha a janela é a resposta que chega depois do fim dela (CAS no
+ * início da janela); o limite é um double guardado como bits em um AtomicLong.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final long SEM_JANELA = Long.MIN_VALUE;
+
+	private final AtomicInteger emAndamento = new AtomicInteger();
+	private final AtomicLong limite;
+	private final AtomicLong inicioJanela = new AtomicLong(SEM_JANELA);
+	private final AtomicInteger amostras = new AtomicInteger();
+	private final AtomicInteger lentas = new AtomicInteger();
+	private final double minLimit;
+	private final double maxLimit;
+	private final long latenciaAlvoNanos;
+	private final double backoff;
+	private final double slowRatio;
+
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latenciaAlvoNanos,
+			double backoff, double slowRatio) {
+		this.limite = new AtomicLong(Double.doubleToLongBits(initialLimit));
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.latenciaAlvoNanos = latenciaAlvoNanos;
+		this.backoff = backoff;
+		this.slowRatio = slowRatio;
+	}
+
+	public boolean tryAcquire() {
+		int atual = emAndamento.incrementAndGet();
+		if (atual > (int) getLimit()) {
+			emAndamento.decrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	public void release(long latenciaNanos) {
+		release(latenciaNanos, System.nanoTime());
+	}
+
+	void release(long latenciaNanos, long agoraNanos) {
+		emAndamento.decrementAndGet();
+		long inicio = inicioJanela.get();
+		if (inicio == SEM_JANELA) {
+			inicioJanela.compareAndSet(SEM_JANELA, agoraNanos);
+		} else if (agoraNanos - inicio >= latenciaAlvoNanos && inicioJanela.compareAndSet(inicio, agoraNanos)) {
+			ajustar(amostras.getAndSet(0), lentas.getAndSet(0));
+		}
+		amostras.incrementAndGet();
+		if (latenciaNanos > latenciaAlvoNanos) {
+			lentas.incrementAndGet();
+		}
+	}
+
+	private void ajustar(int total, int lentasNaJanela) {
+		if (total == 0) {
+			return;
+		}
+		boolean congestionado = lentasNaJanela > total * slowRatio;
+		while (true) {
+			long bits = limite.get();
+			double atual = Double.longBitsToDouble(bits);
+			double novo = congestionado ? Math.max(minLimit, atual * backoff) : Math.min(maxLimit, atual + 1);
+			if (novo == atual || limite.compareAndSet(bits, Double.doubleToLongBits(novo))) {
+				return;
+			}
+		}
+	}
+
+	public double getLimit() {
+		return Double.longBitsToDouble(limite.get());
+	}
+
+	public int getInFlight() {
+		return emAndamento.get();
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.iftm.client.resources.filters;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.iftm.client.resources.exceptions.ErrorBodyTemplate;
+import com.iftm.client.services.util.ClientKeyResolver;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Controle de admissão na frente de /clients: primeiro o token bucket por
+ * chave (X-API-Key ou IP do cliente, ver ClientKeyResolver), depois o limite adaptativo de concorrência. Quem
+ * não passa recebe 429 na hora, em vez de esperar por uma conexão do pool.
+ *
+ * Importação, varredura de duplicados e o SSE do feed passam só pelo token
+ * bucket: seguram a requisição por muito tempo, e as latências deles
+ * derrubariam o limite calculado para as leituras e escritas comuns.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+	private static final Set<String> LONGAS = new HashSet<>(Arrays.asList(
+			"/clients/import", "/clients/duplicates/scan", "/clients/changes/stream"));
+
+	private static final ErrorBodyTemplate TOO_MANY_REQUESTS_BODY =
+			new ErrorBodyTemplate(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests");
+
+	private final ClientKeyResolver chaves;
+	private final boolean enabled;
+	private final TokenBucketRateLimiter rateLimiter;
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+	private final Counter rejeitadasPorTaxa;
+	private final Counter rejeitadasPorConcorrencia;
+
+	public AdmissionControlFilter(MeterRegistry registry, ClientKeyResolver chaves,
+			@Value("${client.rate-limit.enabled:true}") boolean enabled,
+			@Value("${client.rate-limit.requests-per-second:50}") double requestsPerSecond,
+			@Value("${client.rate-limit.burst:100}") int burst,
+			@Value("${client.rate-limit.max-keys:100000}") int maxKeys,
+			@Value("${client.admission.initial-limit:20}") int initialLimit,
+			@Value("${client.admission.min-limit:4}") int minLimit,
+			@Value("${client.admission.max-limit:200}") int maxLimit,
+			@Value("${client.admission.target-latency-ms:200}") long targetLatencyMs,
+			@Value("${client.admission.backoff:0.9}") double backoff,
+			@Value("${client.admission.slow-ratio:0.1}") double slowRatio) {
+		this.chaves = chaves;
+		this.enabled = enabled;
+		this.rateLimiter = new TokenBucketRateLimiter(requestsPerSecond, burst, maxKeys);
+		this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+				TimeUnit.MILLISECONDS.toNanos(targetLatencyMs), backoff, slowRatio);
+		this.rejeitadasPorTaxa = registry.counter("clients.admission.rejected", "reason", "rate-limit");
+		this.rejeitadasPorConcorrencia = registry.counter("clients.admission.rejected", "reason", "concurrency");
+		registry.gauge("clients.admission.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit);
+		registry.gauge("clients.admission.in-flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled || !request.getRequestURI().startsWith("/clients");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		long inicio = System.nanoTime();
+		long espera = rateLimiter.tryAcquire(chaves.chave(request), inicio);
+		if (espera > 0) {
+			rejeitadasPorTaxa.increment();
+			long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999L));
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+			rejeitar(request, response, "Rate limit exceeded");
+			return;
+		}
+		if (isLonga(request.getRequestURI())) {
+			chain.doFilter(request, response);
+			return;
+		}
+		if (!concurrencyLimiter.tryAcquire()) {
+			rejeitadasPorConcorrencia.increment();
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			rejeitar(request, response, "Concurrency limit reached");
+			return;
+		}
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			concurrencyLimiter.release(System.nanoTime() - inicio);
+		}
+	}
+
+	/* o MVC também aceita a URI com barra no final */
+	private static boolean isLonga(String uri) {
+		return LONGAS.contains(uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri);
+	}
+
+	private static void rejeitar(HttpServletRequest request, HttpServletResponse response, String mensagem)
+			throws IOException {
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.getWriter().write(TOO_MANY_REQUESTS_BODY.render(Instant.now(), mensagem, request.getRequestURI()));
+	}
+
+}
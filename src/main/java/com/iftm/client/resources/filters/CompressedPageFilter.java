@@ -0,0 +1,211 @@
+package com.iftm.client.resources.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.iftm.client.services.util.ClientGeneration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Compressão das listagens paginadas com cache dos bytes já comprimidos.
+ * A chave inclui a geração da tabela (ClientGeneration), então qualquer escrita
+ * invalida as páginas guardadas sem precisar varrer o cache. Respostas abaixo
+ * de minSize seguem sem compressão; o restante do tráfego fica com a compressão
+ * do Tomcat (server.compression.*), que ignora respostas já codificadas.
+ * Brotli não tem implementação na JDK, então só gzip e deflate são oferecidos.
+ */
+@Component
+public class CompressedPageFilter extends OncePerRequestFilter {
+
+	private static final Set<String> LISTAGENS = new HashSet<>(Arrays.asList(
+			"/clients", "/clients/", "/clients/income/", "/clients/incomeGreaterThan/", "/clients/cpf/",
+			"/clients/search"));
+
+	private final ClientGeneration generation;
+	private final boolean enabled;
+	private final int minSize;
+	private final int maxEntrySize;
+	private final Map<String, CompressedPage> cache;
+
+	private final Counter bytesIn;
+	private final Counter bytesOut;
+	private final Counter cacheHits;
+	private final Timer compressionTime;
+
+	public CompressedPageFilter(ClientGeneration generation, MeterRegistry registry,
+			@Value("${client.compression.enabled:true}") boolean enabled,
+			@Value("${client.compression.min-size:1024}") int minSize,
+			@Value("${client.compression.cache.max-entries:256}") int maxEntries,
+			@Value("${client.compression.cache.max-entry-size:1048576}") int maxEntrySize) {
+		this.generation = generation;
+		this.enabled = enabled;
+		this.minSize = minSize;
+		this.maxEntrySize = maxEntrySize;
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CompressedPage>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CompressedPage> eldest) {
+				return size() > maxEntries;
+			}
+		});
+		this.bytesIn = registry.counter("clients.compression.bytes.in");
+		this.bytesOut = registry.counter("clients.compression.bytes.out");
+		this.cacheHits = registry.counter("clients.compression.cache.hits");
+		this.compressionTime = registry.timer("clients.compression.time");
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled || !"GET".equals(request.getMethod()) || !LISTAGENS.contains(request.getRequestURI());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String encoding = encoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		if (encoding == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		String chave = generation.atual() + "|" + encoding + "|" + request.getHeader(HttpHeaders.ACCEPT) + "|"
+				+ request.getRequestURI() + "?" + request.getQueryString();
+		CompressedPage cached = cache.get(chave);
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		if (cached != null && (ifNoneMatch == null || cached.etag == null || !ifNoneMatch.contains(cached.etag))) {
+			cacheHits.increment();
+			write(response, cached);
+			return;
+		}
+
+		ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+		chain.doFilter(request, wrapper);
+		int size = wrapper.getContentSize();
+		if (wrapper.getStatus() != HttpServletResponse.SC_OK || size < minSize || size > maxEntrySize
+				|| wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+			wrapper.copyBodyToResponse();
+			return;
+		}
+		long inicio = System.nanoTime();
+		byte[] compressed = compress(wrapper.getContentAsByteArray(), encoding);
+		compressionTime.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+		bytesIn.increment(size);
+		bytesOut.increment(compressed.length);
+
+		CompressedPage page = new CompressedPage(encoding, wrapper.getContentType(),
+				wrapper.getHeader(HttpHeaders.ETAG), compressed);
+		cache.put(chave, page);
+		wrapper.resetBuffer();
+		write(response, page);
+	}
+
+	private static void write(HttpServletResponse response, CompressedPage page) throws IOException {
+		response.setContentType(page.contentType);
+		if (page.etag != null) {
+			response.setHeader(HttpHeaders.ETAG, page.etag);
+		}
+		response.setHeader(HttpHeaders.CONTENT_ENCODING, page.encoding);
+		response.setHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+		response.setContentLength(page.body.length);
+		response.getOutputStream().write(page.body);
+	}
+
+	/*
+	 * Codificação escolhida pelos pesos do Accept-Encoding (RFC 9110): sem q o
+	 * peso é 1, q=0 recusa a codificação, "*" vale para as não listadas e
+	 * x-gzip equivale a gzip. No empate fica o gzip.
+	 */
+	static String encoding(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+		double gzip = -1;
+		double deflate = -1;
+		double curinga = -1;
+		for (String item : acceptEncoding.split(",")) {
+			String[] partes = item.split(";");
+			String codificacao = partes[0].trim().toLowerCase(Locale.ROOT);
+			double peso = peso(partes);
+			if (codificacao.equals("gzip") || codificacao.equals("x-gzip")) {
+				gzip = Math.max(gzip, peso);
+			} else if (codificacao.equals("deflate")) {
+				deflate = peso;
+			} else if (codificacao.equals("*")) {
+				curinga = peso;
+			}
+		}
+		gzip = gzip < 0 ? curinga : gzip;
+		deflate = deflate < 0 ? curinga : deflate;
+		if (gzip <= 0 && deflate <= 0) {
+			return null;
+		}
+		return gzip >= deflate ? "gzip" : "deflate";
+	}
+
+	/*
+	 * Um q inválido conta como recusa.
+	 */
+	private static double peso(String[] partes) {
+		for (int i = 1; i < partes.length; i++) {
+			String parametro = partes[i].trim();
+			if (parametro.length() > 1 && Character.toLowerCase(parametro.charAt(0)) == 'q'
+					&& parametro.charAt(1) == '=') {
+				try {
+					double q = Double.parseDouble(parametro.substring(2).trim());
+					return q >= 0 && q <= 1 ? q : 0;
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	private static byte[] compress(byte[] body, String encoding) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+		try (OutputStream compressor = "gzip".equals(encoding) ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+			compressor.write(body);
+		}
+		return out.toByteArray();
+	}
+
+	private static final class CompressedPage {
+		final String encoding;
+		final String contentType;
+		final String etag;
+		final byte[] body;
+
+		CompressedPage(String encoding, String contentType, String etag, byte[] body) {
+			this.encoding = encoding;
+			this.contentType = contentType;
+			this.etag = etag;
+			this.body = body;
+		}
+	}
+
+}
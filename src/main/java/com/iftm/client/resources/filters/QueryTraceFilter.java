@@ -0,0 +1,152 @@
+package com.iftm.client.resources.filters;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.iftm.client.config.QueryTrace;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Abre um QueryTrace por requisição em /clients e, no fim, registra por
+ * método e rota (o padrão do @RequestMapping) quantos statements, linhas e
+ * quanto tempo de banco a requisição custou: clients.request.queries,
+ * clients.request.rows e clients.request.query-time. Em produção esses
+ * medidores publicam histograma (management.metrics.distribution.*).
+ *
+ * Com client.query-trace.header (perfil test) os mesmos números vão nos
+ * cabeçalhos X-Query-*. Eles são escritos quando o corpo começa a sair, então
+ * não contam o que uma resposta em streaming consultar depois disso.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(value = "client.query-trace.enabled", matchIfMissing = true)
+public class QueryTraceFilter extends OncePerRequestFilter {
+
+	public static final String COUNT_HEADER = "X-Query-Count";
+	public static final String REPEATED_HEADER = "X-Query-Repeated";
+	public static final String ROWS_HEADER = "X-Query-Rows";
+	public static final String TIME_HEADER = "X-Query-Time-Ms";
+
+	private final MeterRegistry registry;
+	private final boolean header;
+
+	public QueryTraceFilter(MeterRegistry registry, @Value("${client.query-trace.header:false}") boolean header) {
+		this.registry = registry;
+		this.header = header;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !request.getRequestURI().startsWith("/clients");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		QueryTrace trace = QueryTrace.iniciar();
+		Cabecalhos cabecalhos = header ? new Cabecalhos(response, trace) : null;
+		try {
+			chain.doFilter(request, cabecalhos != null ? cabecalhos : response);
+		} finally {
+			QueryTrace.encerrar();
+			if (cabecalhos != null) {
+				cabecalhos.escrever();
+			}
+			registrar(request, trace);
+		}
+	}
+
+	private void registrar(HttpServletRequest request, QueryTrace trace) {
+		Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String uri = padrao == null ? "UNKNOWN" : padrao.toString();
+		String method = request.getMethod();
+		DistributionSummary.builder("clients.request.queries").tags("method", method, "uri", uri)
+				.register(registry).record(trace.getStatements());
+		DistributionSummary.builder("clients.request.rows").tags("method", method, "uri", uri)
+				.register(registry).record(trace.getRows());
+		Timer.builder("clients.request.query-time").tags("method", method, "uri", uri)
+				.register(registry).record(trace.getNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	/*
+	 * Escreve os cabeçalhos antes do primeiro byte do corpo (ou no fim, para
+	 * respostas sem corpo), enquanto a resposta ainda não foi enviada.
+	 */
+	private static final class Cabecalhos extends HttpServletResponseWrapper {
+		private final QueryTrace trace;
+		private boolean escrito;
+
+		Cabecalhos(HttpServletResponse response, QueryTrace trace) {
+			super(response);
+			this.trace = trace;
+		}
+
+		void escrever() {
+			if (escrito || isCommitted()) {
+				return;
+			}
+			escrito = true;
+			setHeader(COUNT_HEADER, String.valueOf(trace.getStatements()));
+			setHeader(REPEATED_HEADER, String.valueOf(trace.getRepeated()));
+			setHeader(ROWS_HEADER, String.valueOf(trace.getRows()));
+			setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", trace.getNanos() / 1e6));
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			escrever();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			escrever();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			escrever();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			escrever();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			escrever();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			escrever();
+			super.sendRedirect(location);
+		}
+	}
+
+}
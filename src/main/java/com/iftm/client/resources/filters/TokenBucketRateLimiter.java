@@ -0,0 +1,59 @@
+package com.iftm.client.resources.filters;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token bucket por chave (API key ou IP) no formato GCRA: cada balde é um único
+ * AtomicLong com o "instante teórico de chegada" da próxima requisição, então
+ * consumir um token é um compareAndSet, sem locks. O ConcurrentHashMap já é
+ * particionado internamente, e chaves diferentes não disputam o mesmo balde.
+ */
+public class TokenBucketRateLimiter {
+
+	private final ConcurrentHashMap<String, AtomicLong> baldes = new ConcurrentHashMap<>();
+	private final long intervaloNanos;
+	private final long toleranciaNanos;
+	private final int maxChaves;
+
+	public TokenBucketRateLimiter(double requestsPerSecond, int burst, int maxChaves) {
+		this.intervaloNanos = (long) (1_000_000_000L / requestsPerSecond);
+		this.toleranciaNanos = intervaloNanos * Math.max(0, burst - 1);
+		this.maxChaves = maxChaves;
+	}
+
+	/*
+	 * Retorna 0 se a requisição pode seguir ou, caso contrário, quantos
+	 * nanossegundos faltam para o próximo token.
+	 */
+	public long tryAcquire(String chave, long agoraNanos) {
+		AtomicLong balde = baldes.get(chave);
+		if (balde == null) {
+			if (baldes.size() >= maxChaves) {
+				limparOciosos(agoraNanos);
+			}
+			balde = baldes.computeIfAbsent(chave, k -> new AtomicLong(agoraNanos));
+		}
+		while (true) {
+			long tat = balde.get();
+			long base = Math.max(tat, agoraNanos);
+			long espera = base - agoraNanos - toleranciaNanos;
+			if (espera > 0) {
+				return espera;
+			}
+			if (balde.compareAndSet(tat, base + intervaloNanos)) {
+				return 0;
+			}
+		}
+	}
+
+	public int size() {
+		return baldes.size();
+	}
+
+	// baldes já cheios de novo equivalem a um balde novo e podem ser descartados
+	private void limparOciosos(long agoraNanos) {
+		baldes.entrySet().removeIf(e -> e.getValue().get() <= agoraNanos);
+	}
+
+}
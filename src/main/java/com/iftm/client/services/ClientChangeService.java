@@ -0,0 +1,128 @@
+package com.iftm.client.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.repositories.ClientChangeRepository;
+
+/*
+ * Feed de mudanças dos clientes. registrar() participa da transação da escrita
+ * (MANDATORY), então a linha do outbox e a mudança em tb_client são gravadas
+ * ou descartadas juntas. O evento publicado aqui só chega aos assinantes SSE
+ * depois do commit (ver ClientChangeResource).
+ *
+ * O seq (IDENTITY) é atribuído no insert, mas as transações fazem commit em
+ * outra ordem: com o seq 10 ainda aberto o 11 já pode estar visível, e quem
+ * avançasse o cursor para 11 nunca veria o 10. Por isso findSince() para na
+ * primeira lacuna da sequência, a menos que a linha depois dela seja mais
+ * antiga que gapTimeout: a transação dona do seq que falta começou antes
+ * dessa linha e, passado o timeout de transação (spring.transaction.default-timeout,
+ * menor que o gapTimeout), só pode ter feito rollback. A lacuna então é
+ * definitiva e é pulada. O moment vem do relógio dos nós, então o gapTimeout
+ * também precisa cobrir a diferença entre eles.
+ */
+@Service
+public class ClientChangeService {
+
+	private static final int LOTE_CURSOR = 1000;
+
+	@Autowired
+	private ClientChangeRepository repository;
+
+	@Autowired
+	private ApplicationEventPublisher publisher;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${client.changes.gap-timeout-ms:30000}")
+	private long gapTimeoutMs;
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registrar(ClientChange.Type type, Long clientId, Long version) {
+		publicar(type, clientId, version);
+	}
+
+	/*
+	 * Escritas fora de uma transação JPA (shards): o outbox ganha a própria
+	 * transação logo depois da escrita, sem a mesma garantia de atomicidade.
+	 */
+	@Transactional
+	public void registrarAposEscrita(ClientChange.Type type, Long clientId, Long version) {
+		publicar(type, clientId, version);
+	}
+
+	/*
+	 * Carga em massa: as linhas do outbox entram em lote na mesma transação e
+	 * nenhum evento é publicado por linha (quem usa o feed por polling as recebe
+	 * normalmente; o aviso aos outros nós é feito uma vez por lote).
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registrarInsercoes(long[] clientIds) {
+		Timestamp agora = Timestamp.from(Instant.now());
+		List<Object[]> linhas = new ArrayList<>(clientIds.length);
+		for (long id : clientIds) {
+			linhas.add(new Object[] { id, ClientChange.Type.INSERT.name(), 0L, agora });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO tb_client_change (client_id, type, version, moment) VALUES (?, ?, ?, ?)",
+				linhas);
+	}
+
+	@Transactional(readOnly = true)
+	public List<ClientChangeDTO> findSince(long since, int limit) {
+		return seguras(repository.findSince(since, PageRequest.of(0, limit)), since).stream()
+				.map(ClientChangeDTO::new).collect(Collectors.toList());
+	}
+
+	/*
+	 * Cursor para quem quer só as mudanças daqui para frente: a última linha
+	 * mais antiga que gapTimeout já não tem lacuna pendente antes dela, e o
+	 * restante é percorrido com a mesma regra de findSince().
+	 */
+	@Transactional(readOnly = true)
+	public long cursorAtual() {
+		Long base = repository.findMaxSeqBefore(Instant.now().minusMillis(gapTimeoutMs));
+		long cursor = base == null ? 0 : base;
+		List<ClientChange> seguras;
+		do {
+			seguras = seguras(repository.findSince(cursor, PageRequest.of(0, LOTE_CURSOR)), cursor);
+			if (!seguras.isEmpty()) {
+				cursor = seguras.get(seguras.size() - 1).getSeq();
+			}
+		} while (seguras.size() == LOTE_CURSOR);
+		return cursor;
+	}
+
+	private List<ClientChange> seguras(List<ClientChange> mudancas, long since) {
+		Instant limite = Instant.now().minusMillis(gapTimeoutMs);
+		long esperado = since + 1;
+		for (int i = 0; i < mudancas.size(); i++) {
+			ClientChange change = mudancas.get(i);
+			if (change.getSeq() != esperado && change.getMoment().isAfter(limite)) {
+				return mudancas.subList(0, i);
+			}
+			esperado = change.getSeq() + 1;
+		}
+		return mudancas;
+	}
+
+	private void publicar(ClientChange.Type type, Long clientId, Long version) {
+		ClientChange change = repository.save(new ClientChange(clientId, type, version, Instant.now()));
+		publisher.publishEvent(new ClientChangeDTO(change));
+	}
+
+}
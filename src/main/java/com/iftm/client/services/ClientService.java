@@ -1,22 +1,37 @@
 package com.iftm.client.services;
 
+import java.security.InvalidParameterException;
 import java.util.Optional;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFields;
+import com.iftm.client.dto.ClientPatchDTO;
 import com.iftm.client.entities.Client;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.repositories.ClientReadRepository;
 import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.repositories.ClientSearchCriteria;
+import com.iftm.client.repositories.ShardedClientRepository;
 import com.iftm.client.services.exceptions.DatabaseException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
+import com.iftm.client.services.util.ClientCache;
+import com.iftm.client.services.util.ClientGeneration;
+import com.iftm.client.services.util.ReadYourWritesTracker;
 import com.iftm.client.services.util.Validador;
 
 @Service
@@ -25,71 +40,303 @@ public class ClientService {
 	@Autowired
 	private ClientRepository repository;	
 	
+	@Autowired
+	private ClientReadRepository readRepository;
+	
 	@Autowired
 	private Validador validador;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ClientGeneration generation;
+
+	@Autowired
+	private ReadYourWritesTracker readYourWrites;
+
+	@Autowired
+	private ClientChangeService changes;
+
+	/*
+	 * Presente só com client.sharding.urls: nesse caso ele também é o
+	 * readRepository (@Primary) e as escritas vão para os shards.
+	 */
+	@Autowired(required = false)
+	private ShardedClientRepository shards;
+
+	/*
+	 * Presente só com client.cache.enabled (perfil fast).
+	 */
+	@Autowired(required = false)
+	private ClientCache cache;
+
+	private TransactionTemplate leituraTemplate;
+
+	@Value("${client.update.max-attempts:3}")
+	private int maxTentativasUpdate;
+
+	@PostConstruct
+	void criarLeituraTemplate() {
+		leituraTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		leituraTemplate.setReadOnly(true);
+	}
 	
+	/*
+	 * As leituras usam o ClientReadRepository (JDBC): cada linha vira direto um
+	 * ClientDTO de campos primitivos, sem passar por entidades gerenciadas.
+	 */
 	@Transactional(readOnly = true)
-	public Page<ClientDTO> findAllPaged(PageRequest pageRequest) {
-		Page<Client> list =  repository.findAll(pageRequest);
-		return list.map(x -> new ClientDTO(x));
+	public Page<ClientDTO> findAllPaged(PageRequest pageRequest, ClientFields campos) {
+		return readRepository.findAll(pageRequest, campos);
 	}
 	
-	@Transactional(readOnly = true)
-	public ClientDTO findById(Long id) {
-		Optional<Client> obj = repository.findById(id);
-		Client entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
-		return new ClientDTO(entity);
+	/*
+	 * Sem @Transactional: o id é validado antes de qualquer conexão ser aberta;
+	 * só então a consulta roda em uma transação readOnly (réplica, se houver).
+	 * O cache guarda só leituras completas; uma projeção parcial vai ao banco
+	 * quando o id não está no cache.
+	 */
+	public ClientDTO findById(Long id, ClientFields campos) {
+		validador.eValido(id);
+		ClientDTO cached = cache == null ? null : cache.get(id);
+		if (cached != null) {
+			cached.restringir(campos);
+			return cached;
+		}
+		long marca = cache == null ? 0 : cache.marca();
+		Optional<ClientDTO> obj = leituraTemplate.execute(status -> readRepository.findById(id, campos));
+		ClientDTO dto = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found", false));
+		if (cache != null && campos.isTodos()) {
+			cache.put(dto, marca);
+		}
+		return dto;
+	}
+	
+	/*
+	 * Consulta leve usada no GET condicional: só a versão, sem montar o DTO.
+	 */
+	public Long findVersionById(Long id) {
+		validador.eValido(id);
+		Long cached = cache == null ? null : cache.version(id);
+		if (cached != null) {
+			return cached;
+		}
+		Optional<Long> versao = shards != null ? shards.findVersionById(id) : repository.findVersionById(id);
+		return versao
+				.orElseThrow(() -> new ResourceNotFoundException("Entity not found", false));
 	}
 	
 	@Transactional(readOnly = true)
-	public Page<ClientDTO> findByIncome(PageRequest pageRequest, Double income) {
-		Page<Client> list = repository.findByIncome(income, pageRequest);		
-		return list.map(x -> new ClientDTO(x));
+	public Page<ClientDTO> findByIncome(PageRequest pageRequest, Double income, ClientFields campos) {
+		if (income == null) {
+			return Page.empty(pageRequest);
+		}
+		return readRepository.findByIncome(income, pageRequest, campos);
 	}
 
 	@Transactional(readOnly = true)
-	public Page<ClientDTO> findByIncomeGreaterThan(PageRequest pageRequest, double income) {
-		Page<Client> list = repository.findByIncomeGreaterThan(income, pageRequest);
-		return list.map(x -> new ClientDTO(x));
+	public Page<ClientDTO> findByIncomeGreaterThan(PageRequest pageRequest, double income, ClientFields campos) {
+		return readRepository.findByIncomeGreaterThan(income, pageRequest, campos);
 	}
 	
 	@Transactional(readOnly = true)
-	public Page<ClientDTO> findByCpfLike(PageRequest pageRequest, String cpf) {
-		Page<Client> list = repository.findByCpfLike(cpf, pageRequest);
-		return list.map(x -> new ClientDTO(x));
+	public Page<ClientDTO> findByCpfLike(PageRequest pageRequest, String cpf, ClientFields campos) {
+		return readRepository.findByCpfLike(cpf, pageRequest, campos);
+	}
+
+	/*
+	 * Busca combinando qualquer um dos filtros em uma única consulta paginada
+	 * (ver ClientSearchCriteria).
+	 */
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> search(PageRequest pageRequest, ClientSearchCriteria criteria, ClientFields campos) {
+		return readRepository.search(criteria, pageRequest, campos);
 	}
 	
 	@Transactional
-	public ClientDTO insert(ClientDTO dto) {		
+	public ClientDTO insert(ClientDTO dto) {
+		dto.setCpf(validador.normalizarCpf(dto.getCpf()));
+		if (shards != null) {
+			ClientDTO salvo = shards.insert(dto);
+			validador.registrarInsercao(salvo.getId());
+			registrarEscrita(ClientChange.Type.INSERT, salvo.getId(), salvo.getVersion());
+			return salvo;
+		}
 		Client entity = dto.toEntity();
 		entity = repository.save(entity);
+		changes.registrar(ClientChange.Type.INSERT, entity.getId(), entity.getVersion());
+		validador.registrarInsercao(entity.getId());
+		generation.registrarEscrita();
+		readYourWrites.registrarEscrita();
 		return new ClientDTO(entity);
 	}
 	
-	@Transactional
+	/*
+	 * Com dto.version preenchida (If-Match) o update é condicional e falha na hora
+	 * se a versão mudou. Sem ela vale o último a escrever: um conflito detectado
+	 * pelo @Version é refeito em uma nova transação, até maxTentativasUpdate vezes.
+	 */
 	public ClientDTO update(Long id, ClientDTO dto) {
-		try {
-			Client entity = repository.getOne(id);
-			updateData(entity, dto);
-			entity = repository.save(entity);
-			return new ClientDTO(entity);
-		} catch (EntityNotFoundException e) {
-			throw new ResourceNotFoundException("Id not found " + id);
+		validador.eValido(id);
+		dto.setCpf(cpfDaAtualizacao(id, dto.getCpf()));
+		if (shards != null) {
+			return updateNosShards(id, dto);
+		}
+		for (int tentativa = 1; ; tentativa++) {
+			try {
+				return transactionTemplate.execute(status -> {
+					Client entity = repository.getOne(id);
+					if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+						throw new VersionConflictException("Version mismatch for id " + id);
+					}
+					updateData(entity, dto);
+					entity = repository.saveAndFlush(entity);
+					changes.registrar(ClientChange.Type.UPDATE, id, entity.getVersion());
+					generation.registrarEscrita();
+					readYourWrites.registrarEscrita();
+					return new ClientDTO(entity);
+				});
+			} catch (EntityNotFoundException e) {
+				throw new ResourceNotFoundException("Id not found " + id, false);
+			} catch (ObjectOptimisticLockingFailureException e) {
+				if (dto.getVersion() != null) {
+					throw new VersionConflictException("Version mismatch for id " + id);
+				}
+				if (tentativa >= maxTentativasUpdate) {
+					throw e;
+				}
+			}
 		}
 	}
 	
+	/*
+	 * Nenhum campo do patch depende do valor atual da linha, então o UPDATE vai
+	 * direto ao banco só com as colunas informadas, sem carregar a entidade.
+	 * Retorna a nova versão quando ela é conhecida (update condicional).
+	 */
+	public Long patch(Long id, ClientPatchDTO patch) {
+		validador.eValido(id);
+		if (patch.contains("cpf")) {
+			patch.setCpf(cpfDaAtualizacao(id, (String) patch.get("cpf")));
+		}
+		if (patch.getCampos().isEmpty()) {
+			return patchVazio(id, patch.getVersion());
+		}
+		if (shards != null) {
+			return patchNosShards(id, patch);
+		}
+		int linhas = transactionTemplate.execute(status -> {
+			int alteradas = repository.updateFields(id, patch.getVersion(), patch.getCampos());
+			if (alteradas > 0) {
+				changes.registrar(ClientChange.Type.UPDATE, id, patch.getVersion() == null ? null : patch.getVersion() + 1);
+				generation.registrarEscrita();
+				readYourWrites.registrarEscrita();
+			}
+			return alteradas;
+		});
+		if (linhas == 0) {
+			if (patch.getVersion() != null && repository.existsById(id)) {
+				throw new VersionConflictException("Version mismatch for id " + id);
+			}
+			throw new ResourceNotFoundException("Id not found " + id, false);
+		}
+		return patch.getVersion() == null ? null : patch.getVersion() + 1;
+	}
+	
 	public void delete(Long id) {
 		validador.eValido(id);
-		try {		
-			
-			repository.deleteById(id);
+		if (shards != null) {
+			if (shards.deleteById(id) == 0) {
+				throw new ResourceNotFoundException("Id not found " + id, false);
+			}
+			validador.registrarRemocao(id);
+			registrarEscrita(ClientChange.Type.DELETE, id, null);
+			return;
+		}
+		try {
+			transactionTemplate.execute(status -> {
+				repository.deleteById(id);
+				changes.registrar(ClientChange.Type.DELETE, id, null);
+				generation.registrarEscrita();
+				readYourWrites.registrarEscrita();
+				return null;
+			});
+			validador.registrarRemocao(id);
 		} catch (EmptyResultDataAccessException e) {
-			throw new ResourceNotFoundException("Id not found " + id);
+			throw new ResourceNotFoundException("Id not found " + id, false);
 		} catch (DataIntegrityViolationException e) {
 			throw new DatabaseException("Integrity violation");
 		} 
 	}
 
+	/*
+	 * Linhas gravadas antes da validação dos dígitos verificadores podem ter um
+	 * CPF que não passa nela. Um PUT/PATCH que reenvia o CPF atual não o está
+	 * alterando e não é recusado; um CPF diferente passa pela validação
+	 * completa. O CPF atual só é lido quando a validação falha.
+	 */
+	private String cpfDaAtualizacao(Long id, String cpf) {
+		try {
+			return validador.normalizarCpf(cpf);
+		} catch (InvalidParameterException e) {
+			String digitos = cpf == null ? null : validador.normalizarCpfParcial(cpf);
+			boolean inalterado = digitos != null && readRepository.findById(id, ClientFields.parse("cpf"))
+					.map(atual -> digitos.equals(atual.getCpf())).orElse(false);
+			if (inalterado) {
+				return digitos;
+			}
+			throw e;
+		}
+	}
+
+	/*
+	 * Nos shards cada escrita é um único comando no shard do id, com a mesma
+	 * checagem de versão do caminho JPA.
+	 */
+	private ClientDTO updateNosShards(Long id, ClientDTO dto) {
+		verificarLinhas(id, dto.getVersion(), shards.update(id, dto.getVersion(), dto));
+		ClientDTO atualizado = shards.findById(id)
+				.orElseThrow(() -> new ResourceNotFoundException("Id not found " + id, false));
+		registrarEscrita(ClientChange.Type.UPDATE, id, atualizado.getVersion());
+		return atualizado;
+	}
+
+	/*
+	 * Patch sem campos não grava nada, mas o If-Match continua valendo: a
+	 * versão atual vem do banco (não do cache) e é ela que vira o ETag.
+	 */
+	private Long patchVazio(Long id, Long versaoEsperada) {
+		Optional<Long> atual = shards != null ? shards.findVersionById(id) : repository.findVersionById(id);
+		Long versao = atual.orElseThrow(() -> new ResourceNotFoundException("Id not found " + id, false));
+		if (versaoEsperada != null && !versaoEsperada.equals(versao)) {
+			throw new VersionConflictException("Version mismatch for id " + id);
+		}
+		return versao;
+	}
+
+	private Long patchNosShards(Long id, ClientPatchDTO patch) {
+		verificarLinhas(id, patch.getVersion(), shards.updateFields(id, patch.getVersion(), patch.getCampos()));
+		Long versao = patch.getVersion() == null ? null : patch.getVersion() + 1;
+		registrarEscrita(ClientChange.Type.UPDATE, id, versao);
+		return versao;
+	}
+
+	private void verificarLinhas(Long id, Long versao, int linhas) {
+		if (linhas == 0) {
+			if (versao != null && shards.existsById(id)) {
+				throw new VersionConflictException("Version mismatch for id " + id);
+			}
+			throw new ResourceNotFoundException("Id not found " + id, false);
+		}
+	}
+
+	private void registrarEscrita(ClientChange.Type tipo, Long id, Long versao) {
+		changes.registrarAposEscrita(tipo, id, versao);
+		generation.registrarEscrita();
+		readYourWrites.registrarEscrita();
+	}
+
 	private void updateData(Client entity, ClientDTO dto) {
 		entity.setName(dto.getName());
 		entity.setCpf(dto.getCpf());
@@ -0,0 +1,118 @@
+package com.iftm.client.services.bulk;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.util.Validador;
+
+/*
+ * Gerador determinístico de clientes sintéticos: a linha i depende só de
+ * (seed, i), então qualquer faixa pode ser gerada em qualquer thread e em
+ * qualquer ordem com o mesmo resultado.
+ *
+ * - CPF válido e único por linha (permutação de 0..10^9 sobre o índice);
+ * - nomes e sobrenomes com frequência Zipf (poucos muito comuns, cauda longa);
+ * - renda log-normal (mediana ~ 2.800), filhos ~ Poisson(1.3) até 8,
+ *   idade ~ Normal(42, 15) entre 18 e 95 anos em relação a 2020-01-01.
+ */
+public class ClientDataGenerator {
+
+	private static final String[] NOMES = { "Maria", "José", "Ana", "João", "Antônio", "Francisco", "Carlos",
+			"Paulo", "Pedro", "Lucas", "Luiz", "Marcos", "Luis", "Gabriel", "Rafael", "Francisca", "Daniel",
+			"Marcelo", "Bruno", "Eduardo", "Felipe", "Raimundo", "Rodrigo", "Antônia", "Adriana", "Juliana",
+			"Márcia", "Fernanda", "Patrícia", "Aline", "Sandra", "Camila", "Amanda", "Bruna", "Jéssica", "Letícia",
+			"Júlia", "Luciana", "Vanessa", "Mariana", "Gabriela", "Vera", "Vitória", "Larissa", "Cláudia",
+			"Beatriz", "Rita", "Luana", "Sônia", "Renata", "Eliane", "Conceição", "Benedita", "Tereza", "Sebastião",
+			"Jorge", "Gilberto", "Djamila", "Clarice", "Carolina" };
+
+	private static final String[] SOBRENOMES = { "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+			"Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes",
+			"Soares", "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes",
+			"Marques", "Machado", "Mendes", "Freitas", "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira",
+			"Evaristo", "Amado", "Lispector", "Ramos", "Jesus" };
+
+	private static final long ESPACO_CPF = 1_000_000_000L;
+	/* ímpar e não múltiplo de 5: coprimo com 10^9, então i -> i * PASSO mod 10^9 é bijetora */
+	private static final long PASSO_CPF = 387_420_489L;
+	private static final long REFERENCIA = Instant.parse("2020-01-01T00:00:00Z").getEpochSecond();
+	private static final long SEGUNDOS_ANO = 31_557_600L;
+
+	private final long seed;
+	private final long deslocamentoCpf;
+	private final double[] acumuladoNomes = zipf(NOMES.length, 1.1);
+	private final double[] acumuladoSobrenomes = zipf(SOBRENOMES.length, 0.9);
+
+	public ClientDataGenerator(long seed) {
+		this.seed = seed;
+		this.deslocamentoCpf = Math.floorMod(new SplittableRandom(seed).nextLong(), ESPACO_CPF);
+	}
+
+	public Client gerar(long indice) {
+		SplittableRandom random = new SplittableRandom(seed ^ (indice * 0x9E3779B97F4A7C15L));
+		String name = NOMES[amostra(acumuladoNomes, random)] + " " + SOBRENOMES[amostra(acumuladoSobrenomes, random)];
+		double income = Math.round(Math.exp(7.94 + 0.75 * gaussiana(random)) * 100) / 100.0;
+		int children = Math.min(8, poisson(1.3, random));
+		double idade = Math.max(18, Math.min(95, 42 + 15 * gaussiana(random)));
+		Instant birthDate = Instant.ofEpochSecond(REFERENCIA - (long) (idade * SEGUNDOS_ANO));
+		return new Client(null, name, cpf(indice), income, birthDate, children);
+	}
+
+	/*
+	 * Bases com os 9 dígitos iguais (inválidas) são trocadas pela vizinha: no
+	 * máximo 10 bases em 10^9 podem repetir, o que basta para dados sintéticos.
+	 */
+	String cpf(long indice) {
+		int base = (int) ((Math.floorMod(indice, ESPACO_CPF) * PASSO_CPF + deslocamentoCpf) % ESPACO_CPF);
+		if (base % 111_111_111 == 0) {
+			base = base == 999_999_999 ? base - 1 : base + 1;
+		}
+		return Validador.cpfComDigitos(base);
+	}
+
+	private static double[] zipf(int n, double expoente) {
+		double[] acumulado = new double[n];
+		double soma = 0;
+		for (int i = 0; i < n; i++) {
+			soma += 1 / Math.pow(i + 1, expoente);
+			acumulado[i] = soma;
+		}
+		for (int i = 0; i < n; i++) {
+			acumulado[i] /= soma;
+		}
+		return acumulado;
+	}
+
+	private static int amostra(double[] acumulado, SplittableRandom random) {
+		double u = random.nextDouble();
+		int lo = 0;
+		int hi = acumulado.length - 1;
+		while (lo < hi) {
+			int meio = (lo + hi) >>> 1;
+			if (acumulado[meio] < u) {
+				lo = meio + 1;
+			} else {
+				hi = meio;
+			}
+		}
+		return lo;
+	}
+
+	private static double gaussiana(SplittableRandom random) {
+		double u1 = 1 - random.nextDouble();
+		double u2 = random.nextDouble();
+		return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+	}
+
+	private static int poisson(double lambda, SplittableRandom random) {
+		double limite = Math.exp(-lambda);
+		double produto = random.nextDouble();
+		int k = 0;
+		while (produto > limite) {
+			produto *= random.nextDouble();
+			k++;
+		}
+		return k;
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.iftm.client.services.bulk;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+ * Carga sintética na subida: --client.generator.rows=1000000 (ver o perfil perf).
+ * Com client.generator.seed fixo, duas subidas geram exatamente os mesmos dados.
+ */
+@Component
+@ConditionalOnProperty("client.generator.rows")
+public class ClientDataGeneratorRunner implements ApplicationRunner {
+
+	private final ClientDataLoader loader;
+	private final long rows;
+	private final long seed;
+	private final int threads;
+	private final int batchSize;
+	private final boolean deferIndexes;
+
+	public ClientDataGeneratorRunner(ClientDataLoader loader,
+			@Value("${client.generator.rows}") long rows,
+			@Value("${client.generator.seed:42}") long seed,
+			@Value("${client.generator.threads:4}") int threads,
+			@Value("${client.generator.batch-size:5000}") int batchSize,
+			@Value("${client.generator.defer-indexes:true}") boolean deferIndexes) {
+		this.loader = loader;
+		this.rows = rows;
+		this.seed = seed;
+		this.threads = threads;
+		this.batchSize = batchSize;
+		this.deferIndexes = deferIndexes;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		loader.carregar(rows, seed, threads, batchSize, deferIndexes);
+	}
+
+}
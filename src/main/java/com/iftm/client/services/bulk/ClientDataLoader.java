@@ -0,0 +1,194 @@
+package com.iftm.client.services.bulk;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.util.ClientGeneration;
+import com.iftm.client.services.util.Validador;
+
+/*
+ * Carga de dados sintéticos (ClientDataGenerator) direto em tb_client via JDBC
+ * em lote, sem JPA nem outbox: serve para testes de volume, benchmarks e
+ * profiling local, não para dados reais. Cada thread grava uma faixa contígua de
+ * índices com a própria conexão e confirma a cada lote.
+ *
+ * Com adiarIndices os índices secundários de tb_client são removidos antes da
+ * carga e recriados no fim: no H2 o custo do commit cresce com o número de
+ * índices tocados por linha, e montar cada índice de uma vez sai bem mais barato.
+ * Durante a carga as consultas por esses índices viram varreduras.
+ */
+@Service
+public class ClientDataLoader {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientDataLoader.class);
+
+	private static final String INSERT = "INSERT INTO tb_client (name, cpf, income, birth_date, children, version) "
+			+ "VALUES (?, ?, ?, ?, ?, 0)";
+
+	private final DataSource dataSource;
+	private final Validador validador;
+	private final ClientGeneration generation;
+
+	public ClientDataLoader(DataSource dataSource, Validador validador, ClientGeneration generation) {
+		this.dataSource = dataSource;
+		this.validador = validador;
+		this.generation = generation;
+	}
+
+	/*
+	 * Grava as linhas [0, linhas) geradas com a semente dada. Mesma semente e
+	 * mesmo número de linhas produzem os mesmos dados, qualquer que seja o número
+	 * de threads; só os ids (IDENTITY) dependem da ordem dos commits.
+	 */
+	public long carregar(long linhas, long seed, int threads, int batchSize, boolean adiarIndices) {
+		long inicio = System.nanoTime();
+		ClientDataGenerator gerador = new ClientDataGenerator(seed);
+		AtomicLong gravadas = new AtomicLong();
+		Map<String, String> indices = adiarIndices ? removerIndices() : new LinkedHashMap<>();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> faixas = new ArrayList<>(threads);
+			long porThread = (linhas + threads - 1) / threads;
+			for (int t = 0; t < threads; t++) {
+				long de = t * porThread;
+				long ate = Math.min(linhas, de + porThread);
+				if (de < ate) {
+					faixas.add(executor.submit(() -> {
+						gravar(gerador, de, ate, batchSize, gravadas);
+						return null;
+					}));
+				}
+			}
+			for (Future<?> faixa : faixas) {
+				faixa.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Synthetic load interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Synthetic load failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+			recriarIndices(indices);
+		}
+		validador.carregarLimites();
+		generation.registrarEscritaRemota();
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		LOG.info("Synthetic load: {} rows in {} s ({} rows/s)", gravadas.get(), String.format("%.1f", segundos),
+				Math.round(gravadas.get() / Math.max(segundos, 1e-9)));
+		return gravadas.get();
+	}
+
+	/*
+	 * Índices não únicos de tb_client (nome -> colunas), lidos do metadata para
+	 * não duplicar aqui a lista declarada em Client.
+	 */
+	private Map<String, String> removerIndices() {
+		Map<String, String> indices = new LinkedHashMap<>();
+		try (Connection connection = dataSource.getConnection()) {
+			DatabaseMetaData metaData = connection.getMetaData();
+			try (ResultSet rs = metaData.getIndexInfo(null, null, tabela(metaData), false, false)) {
+				while (rs.next()) {
+					String nome = rs.getString("INDEX_NAME");
+					if (nome != null && rs.getBoolean("NON_UNIQUE")) {
+						indices.merge(nome, rs.getString("COLUMN_NAME"), (a, b) -> a + ", " + b);
+					}
+				}
+			}
+			try (Statement statement = connection.createStatement()) {
+				for (String nome : indices.keySet()) {
+					statement.execute("DROP INDEX " + nome);
+				}
+			}
+			commitSeNecessario(connection);
+		} catch (SQLException e) {
+			throw new DataAccessResourceFailureException("Could not drop tb_client indexes", e);
+		}
+		return indices;
+	}
+
+	private void recriarIndices(Map<String, String> indices) {
+		if (indices.isEmpty()) {
+			return;
+		}
+		long inicio = System.nanoTime();
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			for (Map.Entry<String, String> indice : indices.entrySet()) {
+				statement.execute("CREATE INDEX " + indice.getKey() + " ON tb_client (" + indice.getValue() + ")");
+			}
+			commitSeNecessario(connection);
+		} catch (SQLException e) {
+			throw new DataAccessResourceFailureException("Could not recreate tb_client indexes " + indices.keySet(), e);
+		}
+		LOG.info("Synthetic load: {} indexes rebuilt in {} ms", indices.size(), (System.nanoTime() - inicio) / 1_000_000);
+	}
+
+	private static String tabela(DatabaseMetaData metaData) throws SQLException {
+		return metaData.storesUpperCaseIdentifiers() ? "TB_CLIENT" : "tb_client";
+	}
+
+	private static void commitSeNecessario(Connection connection) throws SQLException {
+		if (!connection.getAutoCommit()) {
+			connection.commit();
+		}
+	}
+
+	private void gravar(ClientDataGenerator gerador, long de, long ate, int batchSize, AtomicLong gravadas)
+			throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+				int noLote = 0;
+				for (long i = de; i < ate; i++) {
+					Client client = gerador.gerar(i);
+					ps.setString(1, client.getName());
+					ps.setString(2, client.getCpf());
+					ps.setDouble(3, client.getIncome());
+					ps.setTimestamp(4, Timestamp.from(client.getBirthDate()));
+					ps.setInt(5, client.getChildren());
+					ps.addBatch();
+					if (++noLote == batchSize) {
+						ps.executeBatch();
+						connection.commit();
+						gravadas.addAndGet(noLote);
+						noLote = 0;
+					}
+				}
+				if (noLote > 0) {
+					ps.executeBatch();
+					connection.commit();
+					gravadas.addAndGet(noLote);
+				}
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		}
+	}
+
+}
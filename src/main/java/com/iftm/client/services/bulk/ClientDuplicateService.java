@@ -0,0 +1,478 @@
+package com.iftm.client.services.bulk;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientDuplicateReportDTO;
+import com.iftm.client.dto.ClientMergeSuggestionDTO;
+import com.iftm.client.entities.ClientMergeSuggestion;
+import com.iftm.client.repositories.ClientMergeSuggestionRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Detecção de clientes duplicados em duas passadas sobre tb_client, cada uma
+ * lida em streaming na ordem de um índice:
+ *
+ * - ORDER BY cpf: linhas vizinhas com o mesmo CPF formam um bloco e todos os
+ *   pares do bloco viram sugestão (SAME_CPF), com a similaridade dos nomes;
+ * - ORDER BY name: janela deslizante (sorted neighbourhood) em que cada linha é
+ *   comparada com as window anteriores por Jaro-Winkler sobre o nome
+ *   normalizado (sem acentos, minúsculo); pares acima do limiar e com CPFs
+ *   diferentes viram SIMILAR_NAME.
+ *
+ * As linhas lidas são agrupadas em lotes de ~chunkSize e cada lote é comparado
+ * em paralelo (fork-join sobre os blocos ou posições do lote). No máximo
+ * maxInFlight lotes ficam em memória: quando o limite é atingido a leitura
+ * espera, então a memória não depende do tamanho da tabela. Cada lote grava
+ * as próprias sugestões em uma transação.
+ *
+ * Nomes que só diferem por maiúsculas/acentos no início podem não ficar
+ * vizinhos na ordem do índice; a janela cobre os casos comuns sem abrir mão
+ * da leitura pelo índice.
+ */
+@Service
+public class ClientDuplicateService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientDuplicateService.class);
+
+	private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+	private static final int LIMIAR_FORK = 64;
+
+	private final JdbcTemplate jdbc;
+	private final TransactionTemplate transactionTemplate;
+	private final ClientMergeSuggestionRepository repository;
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+	private final int window;
+	private final int maxBlock;
+	private final int maxInFlight;
+	private final double nameThreshold;
+	private final AtomicBoolean executando = new AtomicBoolean();
+	private final Counter sugestoesGravadas;
+
+	public ClientDuplicateService(DataSource dataSource, TransactionTemplate transactionTemplate,
+			ClientMergeSuggestionRepository repository, MeterRegistry registry,
+			@Value("${client.dedup.chunk-size:5000}") int chunkSize,
+			@Value("${client.dedup.window:10}") int window,
+			@Value("${client.dedup.max-block:1000}") int maxBlock,
+			@Value("${client.dedup.name-threshold:0.92}") double nameThreshold,
+			@Value("${client.dedup.fetch-size:1000}") int fetchSize,
+			@Value("${client.dedup.parallelism:0}") int parallelism) {
+		/* JdbcTemplate próprio: o fetch size do streaming vale só para este job */
+		this.jdbc = new JdbcTemplate(dataSource);
+		this.jdbc.setFetchSize(fetchSize);
+		this.transactionTemplate = transactionTemplate;
+		this.repository = repository;
+		int paralelismo = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		this.pool = new ForkJoinPool(paralelismo);
+		this.chunkSize = chunkSize;
+		this.window = window;
+		this.maxBlock = maxBlock;
+		this.maxInFlight = paralelismo * 2;
+		this.nameThreshold = nameThreshold;
+		this.sugestoesGravadas = registry.counter("clients.dedup.suggestions");
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		pool.shutdownNow();
+	}
+
+	@Transactional(readOnly = true)
+	public Page<ClientMergeSuggestionDTO> findSuggestions(PageRequest pageRequest) {
+		return repository.findAll(pageRequest).map(ClientMergeSuggestionDTO::new);
+	}
+
+	/*
+	 * Uma execução por vez; uma segunda chamada concorrente recebe ALREADY_RUNNING.
+	 */
+	public ClientDuplicateReportDTO executar() {
+		if (!executando.compareAndSet(false, true)) {
+			return new ClientDuplicateReportDTO("ALREADY_RUNNING", 0, 0, 0, 0, null);
+		}
+		long inicio = System.nanoTime();
+		Execucao execucao = new Execucao();
+		try {
+			transactionTemplate.execute(status -> jdbc.update("DELETE FROM tb_client_merge_suggestion"));
+			PassadaCpf porCpf = new PassadaCpf(execucao);
+			jdbc.query("SELECT id, cpf, name FROM tb_client WHERE cpf IS NOT NULL ORDER BY cpf, id", porCpf);
+			porCpf.terminar();
+			PassadaNome porNome = new PassadaNome(execucao);
+			jdbc.query("SELECT id, cpf, name FROM tb_client WHERE name IS NOT NULL ORDER BY name, id", porNome);
+			porNome.terminar();
+			execucao.aguardar();
+		} catch (RuntimeException e) {
+			execucao.falha.compareAndSet(null, e);
+			execucao.aguardar();
+		} finally {
+			executando.set(false);
+		}
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		RuntimeException falha = execucao.falha.get();
+		LOG.info("Duplicate scan: {} rows, {} comparisons, {} suggestions in {} s", execucao.lidas.sum(),
+				execucao.comparacoes.sum(), execucao.sugestoes.sum(), String.format("%.1f", segundos));
+		return new ClientDuplicateReportDTO(falha == null ? "COMPLETED" : "FAILED", execucao.lidas.sum(),
+				execucao.comparacoes.sum(), execucao.sugestoes.sum(), segundos,
+				falha == null ? null : falha.getMessage());
+	}
+
+	private final class PassadaCpf implements RowCallbackHandler {
+		private final Execucao execucao;
+		private List<List<Registro>> blocos = new ArrayList<>();
+		private List<Registro> bloco = new ArrayList<>();
+		private int linhasNoLote;
+
+		PassadaCpf(Execucao execucao) {
+			this.execucao = execucao;
+		}
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			Registro registro = new Registro(rs.getLong(1), rs.getString(2), rs.getString(3));
+			execucao.lidas.increment();
+			if (!bloco.isEmpty() && !bloco.get(0).cpf.equals(registro.cpf)) {
+				fecharBloco();
+			}
+			if (bloco.size() < maxBlock) {
+				bloco.add(registro);
+			}
+		}
+
+		void terminar() {
+			fecharBloco();
+			enviar();
+		}
+
+		private void fecharBloco() {
+			if (bloco.size() > 1) {
+				blocos.add(bloco);
+				linhasNoLote += bloco.size();
+			}
+			bloco = new ArrayList<>();
+			if (linhasNoLote >= chunkSize) {
+				enviar();
+			}
+		}
+
+		private void enviar() {
+			if (!blocos.isEmpty()) {
+				execucao.submeter(new LoteCpf(blocos));
+				blocos = new ArrayList<>();
+				linhasNoLote = 0;
+			}
+		}
+	}
+
+	/*
+	 * Cada lote começa com as últimas window linhas do anterior: elas só servem
+	 * de vizinhas para as primeiras linhas do lote, sem serem comparadas de novo.
+	 */
+	private final class PassadaNome implements RowCallbackHandler {
+		private final Execucao execucao;
+		private List<Registro> lote = new ArrayList<>();
+		private int sobreposicao;
+
+		PassadaNome(Execucao execucao) {
+			this.execucao = execucao;
+		}
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			execucao.lidas.increment();
+			lote.add(new Registro(rs.getLong(1), rs.getString(2), rs.getString(3)));
+			if (lote.size() - sobreposicao >= chunkSize) {
+				enviar();
+			}
+		}
+
+		void terminar() {
+			if (lote.size() > sobreposicao) {
+				enviar();
+			}
+		}
+
+		private void enviar() {
+			execucao.submeter(new LoteNome(lote, sobreposicao));
+			List<Registro> proximo = new ArrayList<>(chunkSize + window);
+			proximo.addAll(lote.subList(Math.max(0, lote.size() - window), lote.size()));
+			sobreposicao = proximo.size();
+			lote = proximo;
+		}
+	}
+
+	private final class Execucao {
+		final LongAdder lidas = new LongAdder();
+		final LongAdder comparacoes = new LongAdder();
+		final LongAdder sugestoes = new LongAdder();
+		final AtomicReference<RuntimeException> falha = new AtomicReference<>();
+		final Semaphore emVoo = new Semaphore(maxInFlight);
+
+		void submeter(Lote lote) {
+			if (falha.get() != null) {
+				throw falha.get();
+			}
+			emVoo.acquireUninterruptibly();
+			pool.execute(() -> {
+				try {
+					List<Sugestao> encontradas = new Comparacao(lote, 0, lote.tamanho(), this).invoke();
+					if (!encontradas.isEmpty()) {
+						gravar(encontradas);
+						sugestoes.add(encontradas.size());
+						sugestoesGravadas.increment(encontradas.size());
+					}
+				} catch (RuntimeException e) {
+					falha.compareAndSet(null, e);
+				} finally {
+					emVoo.release();
+				}
+			});
+		}
+
+		void aguardar() {
+			emVoo.acquireUninterruptibly(maxInFlight);
+			emVoo.release(maxInFlight);
+		}
+	}
+
+	private void gravar(List<Sugestao> sugestoes) {
+		Timestamp agora = Timestamp.from(Instant.now());
+		List<Object[]> linhas = new ArrayList<>(sugestoes.size());
+		for (Sugestao s : sugestoes) {
+			linhas.add(new Object[] { s.clientId, s.duplicateId, s.reason.name(), s.score, agora });
+		}
+		transactionTemplate.execute(status -> jdbc.batchUpdate("INSERT INTO tb_client_merge_suggestion "
+				+ "(client_id, duplicate_id, reason, score, moment) VALUES (?, ?, ?, ?, ?)", linhas));
+	}
+
+	/*
+	 * Divide as unidades do lote (blocos ou posições) ao meio até LIMIAR_FORK.
+	 */
+	private static final class Comparacao extends RecursiveTask<List<Sugestao>> {
+		private static final long serialVersionUID = 1L;
+
+		private final Lote lote;
+		private final int de;
+		private final int ate;
+		private final Execucao execucao;
+
+		Comparacao(Lote lote, int de, int ate, Execucao execucao) {
+			this.lote = lote;
+			this.de = de;
+			this.ate = ate;
+			this.execucao = execucao;
+		}
+
+		@Override
+		protected List<Sugestao> compute() {
+			if (ate - de <= LIMIAR_FORK) {
+				List<Sugestao> saida = new ArrayList<>();
+				long comparacoes = 0;
+				for (int i = de; i < ate; i++) {
+					comparacoes += lote.comparar(i, saida);
+				}
+				execucao.comparacoes.add(comparacoes);
+				return saida;
+			}
+			int meio = (de + ate) >>> 1;
+			Comparacao esquerda = new Comparacao(lote, de, meio, execucao);
+			esquerda.fork();
+			List<Sugestao> direita = new Comparacao(lote, meio, ate, execucao).compute();
+			List<Sugestao> resultado = esquerda.join();
+			resultado.addAll(direita);
+			return resultado;
+		}
+	}
+
+	private interface Lote {
+		int tamanho();
+
+		/* compara a unidade i e devolve quantas comparações fez */
+		long comparar(int i, List<Sugestao> saida);
+	}
+
+	private static final class LoteCpf implements Lote {
+		private final List<List<Registro>> blocos;
+
+		LoteCpf(List<List<Registro>> blocos) {
+			this.blocos = blocos;
+		}
+
+		@Override
+		public int tamanho() {
+			return blocos.size();
+		}
+
+		@Override
+		public long comparar(int i, List<Sugestao> saida) {
+			List<Registro> bloco = blocos.get(i);
+			long comparacoes = 0;
+			for (int a = 0; a < bloco.size(); a++) {
+				for (int b = a + 1; b < bloco.size(); b++) {
+					Registro x = bloco.get(a);
+					Registro y = bloco.get(b);
+					saida.add(new Sugestao(x, y, ClientMergeSuggestion.Reason.SAME_CPF,
+							jaroWinkler(x.nomeNormalizado(), y.nomeNormalizado())));
+					comparacoes++;
+				}
+			}
+			return comparacoes;
+		}
+	}
+
+	private final class LoteNome implements Lote {
+		private final List<Registro> registros;
+		private final int sobreposicao;
+
+		LoteNome(List<Registro> registros, int sobreposicao) {
+			this.registros = registros;
+			this.sobreposicao = sobreposicao;
+		}
+
+		@Override
+		public int tamanho() {
+			return registros.size() - sobreposicao;
+		}
+
+		@Override
+		public long comparar(int i, List<Sugestao> saida) {
+			int posicao = sobreposicao + i;
+			Registro atual = registros.get(posicao);
+			long comparacoes = 0;
+			for (int j = Math.max(0, posicao - window); j < posicao; j++) {
+				Registro vizinho = registros.get(j);
+				if (Objects.equals(atual.cpf, vizinho.cpf)) {
+					continue;
+				}
+				double score = jaroWinkler(atual.nomeNormalizado(), vizinho.nomeNormalizado());
+				comparacoes++;
+				if (score >= nameThreshold) {
+					saida.add(new Sugestao(atual, vizinho, ClientMergeSuggestion.Reason.SIMILAR_NAME, score));
+				}
+			}
+			return comparacoes;
+		}
+	}
+
+	private static final class Registro {
+		final long id;
+		final String cpf;
+		final String name;
+		private String normalizado;
+
+		Registro(long id, String cpf, String name) {
+			this.id = id;
+			this.cpf = cpf;
+			this.name = name;
+		}
+
+		/* calculado uma vez, na thread que compara (a leitura não paga por ele) */
+		String nomeNormalizado() {
+			String resultado = normalizado;
+			if (resultado == null) {
+				resultado = normalizarNome(name);
+				normalizado = resultado;
+			}
+			return resultado;
+		}
+	}
+
+	private static final class Sugestao {
+		final long clientId;
+		final long duplicateId;
+		final ClientMergeSuggestion.Reason reason;
+		final double score;
+
+		Sugestao(Registro a, Registro b, ClientMergeSuggestion.Reason reason, double score) {
+			this.clientId = Math.min(a.id, b.id);
+			this.duplicateId = Math.max(a.id, b.id);
+			this.reason = reason;
+			this.score = Math.round(score * 10_000) / 10_000.0;
+		}
+	}
+
+	static String normalizarNome(String nome) {
+		if (nome == null) {
+			return "";
+		}
+		String semAcentos = MARCAS.matcher(Normalizer.normalize(nome, Normalizer.Form.NFD)).replaceAll("");
+		return SEPARADORES.matcher(semAcentos.toLowerCase()).replaceAll(" ").trim();
+	}
+
+	static double jaroWinkler(String a, String b) {
+		if (a.equals(b)) {
+			return 1;
+		}
+		if (a.isEmpty() || b.isEmpty()) {
+			return 0;
+		}
+		int alcance = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+		boolean[] usadosA = new boolean[a.length()];
+		boolean[] usadosB = new boolean[b.length()];
+		int coincidencias = 0;
+		for (int i = 0; i < a.length(); i++) {
+			int inicio = Math.max(0, i - alcance);
+			int fim = Math.min(b.length(), i + alcance + 1);
+			for (int j = inicio; j < fim; j++) {
+				if (!usadosB[j] && a.charAt(i) == b.charAt(j)) {
+					usadosA[i] = true;
+					usadosB[j] = true;
+					coincidencias++;
+					break;
+				}
+			}
+		}
+		if (coincidencias == 0) {
+			return 0;
+		}
+		int transposicoes = 0;
+		for (int i = 0, j = 0; i < a.length(); i++) {
+			if (usadosA[i]) {
+				while (!usadosB[j]) {
+					j++;
+				}
+				if (a.charAt(i) != b.charAt(j)) {
+					transposicoes++;
+				}
+				j++;
+			}
+		}
+		double m = coincidencias;
+		double jaro = (m / a.length() + m / b.length() + (m - transposicoes / 2.0) / m) / 3;
+		int prefixo = 0;
+		while (prefixo < Math.min(4, Math.min(a.length(), b.length())) && a.charAt(prefixo) == b.charAt(prefixo)) {
+			prefixo++;
+		}
+		return jaro + prefixo * 0.1 * (1 - jaro);
+	}
+
+}
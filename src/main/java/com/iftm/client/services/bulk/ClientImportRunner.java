@@ -0,0 +1,71 @@
+package com.iftm.client.services.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+ * Importação de arquivo na subida: --client.import.file=/caminho/clientes.csv
+ * (ou .ndjson/.jsonl). O checkpoint fica em <arquivo>.checkpoint; se ele existir
+ * a importação continua de onde parou, e é apagado quando termina sem erro.
+ * O importId vem do caminho absoluto do arquivo, o mesmo em todas as tentativas.
+ */
+@Component
+@ConditionalOnProperty("client.import.file")
+public class ClientImportRunner implements ApplicationRunner {
+
+	private final ClientImportService service;
+	private final Path arquivo;
+	private final Path arquivoCheckpoint;
+
+	public ClientImportRunner(ClientImportService service, @Value("${client.import.file}") String arquivo) {
+		this.service = service;
+		this.arquivo = Paths.get(arquivo);
+		this.arquivoCheckpoint = Paths.get(arquivo + ".checkpoint");
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws IOException {
+		String nome = arquivo.getFileName().toString().toLowerCase();
+		ClientRowParser.Formato formato = nome.endsWith(".ndjson") || nome.endsWith(".jsonl")
+				? ClientRowParser.Formato.NDJSON : ClientRowParser.Formato.CSV;
+		long retomar = Files.exists(arquivoCheckpoint)
+				? Long.parseLong(new String(Files.readAllBytes(arquivoCheckpoint), StandardCharsets.US_ASCII).trim())
+				: 0;
+		String importId = UUID.nameUUIDFromBytes(
+				arquivo.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8)).toString();
+		try (Reader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+			String status = service.importar(reader, formato, importId, retomar, this::gravarCheckpoint).getStatus();
+			if ("COMPLETED".equals(status)) {
+				Files.deleteIfExists(arquivoCheckpoint);
+			}
+		}
+	}
+
+	/*
+	 * Escrita atômica (arquivo temporário + rename): uma queda no meio nunca
+	 * deixa um checkpoint pela metade.
+	 */
+	private void gravarCheckpoint(long linhas) {
+		try {
+			Path temporario = Paths.get(arquivoCheckpoint + ".tmp");
+			Files.write(temporario, Long.toString(linhas).getBytes(StandardCharsets.US_ASCII));
+			Files.move(temporario, arquivoCheckpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,364 @@
+package com.iftm.client.services.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientImportReportDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.repositories.ShardedClientRepository;
+import com.iftm.client.services.ClientChangeService;
+import com.iftm.client.services.invalidation.ClientInvalidationRelay;
+import com.iftm.client.services.util.ClientGeneration;
+import com.iftm.client.services.util.Validador;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Importação em massa. A thread chamadora lê o arquivo em streaming e junta as
+ * linhas em lotes; cada lote é convertido em paralelo (fork-join sobre o lote)
+ * e entregue a uma fila limitada. Quando a fila enche a leitura espera, então a
+ * memória fica em torno de (capacidade da fila + gravadores) lotes. Cada
+ * gravador grava um lote por transação (INSERT em lote + outbox).
+ *
+ * Os lotes terminam fora de ordem; o checkpoint só avança até o último lote
+ * para o qual todos os anteriores já foram gravados.
+ *
+ * Com client.sharding.urls cada lote vai para os shards (ShardedClientRepository,
+ * um lote por shard, ids globais) e o outbox é gravado logo depois, como nas
+ * demais escritas nos shards. Se um shard falhar no meio do lote (ou o processo
+ * cair antes do checkpoint), parte das linhas já está nos shards sem outbox.
+ * Cada linha vai com a chave importId:linha, e ao retomar com o mesmo importId
+ * os shards devolvem os ids das linhas já gravadas em vez de inseri-las de
+ * novo; o outbox é gravado para o lote inteiro, então uma linha cujo outbox já
+ * tinha sido gravado pode aparecer duas vezes no feed (pelo menos uma vez).
+ */
+@Service
+public class ClientImportService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientImportService.class);
+
+	private static final int MAX_REJEICOES_NO_RELATORIO = 100;
+	private static final Lote FIM = new Lote(-1, 0, Collections.emptyList(), Collections.emptyList());
+
+	private final ClientRepository repository;
+	private final ShardedClientRepository shards;
+	private final ClientChangeService changes;
+	private final TransactionTemplate transactionTemplate;
+	private final Validador validador;
+	private final ClientGeneration generation;
+	private final ClientInvalidationRelay relay;
+	private final ObjectReader leitorJson;
+	private final ForkJoinPool parsePool;
+	private final int batchSize;
+	private final int writers;
+	private final int queueCapacity;
+	private final Counter linhasImportadas;
+	private final Counter linhasRejeitadas;
+
+	public ClientImportService(ClientRepository repository, ObjectProvider<ShardedClientRepository> shards,
+			ClientChangeService changes,
+			TransactionTemplate transactionTemplate, Validador validador, ClientGeneration generation,
+			ClientInvalidationRelay relay, ObjectMapper objectMapper, MeterRegistry registry,
+			@Value("${client.import.batch-size:1000}") int batchSize,
+			@Value("${client.import.writers:4}") int writers,
+			@Value("${client.import.queue-capacity:8}") int queueCapacity,
+			@Value("${client.import.parse-parallelism:0}") int parseParallelism) {
+		this.repository = repository;
+		this.shards = shards.getIfAvailable();
+		this.changes = changes;
+		this.transactionTemplate = transactionTemplate;
+		this.validador = validador;
+		this.generation = generation;
+		this.relay = relay;
+		this.leitorJson = objectMapper.readerFor(ClientDTO.class);
+		this.parsePool = new ForkJoinPool(parseParallelism > 0 ? parseParallelism : Runtime.getRuntime().availableProcessors());
+		this.batchSize = batchSize;
+		this.writers = writers;
+		this.queueCapacity = queueCapacity;
+		this.linhasImportadas = registry.counter("clients.import.rows", "result", "imported");
+		this.linhasRejeitadas = registry.counter("clients.import.rows", "result", "rejected");
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		parsePool.shutdownNow();
+	}
+
+	/*
+	 * pularLinhas: linhas de dados (sem contar o cabeçalho do CSV) já importadas
+	 * em uma execução anterior. checkpoint recebe o novo total a cada avanço.
+	 * importId identifica o arquivo entre as tentativas e deve ser o mesmo ao
+	 * retomar.
+	 */
+	public ClientImportReportDTO importar(Reader reader, ClientRowParser.Formato formato, String importId,
+			long pularLinhas, LongConsumer checkpoint) throws IOException {
+		long inicio = System.nanoTime();
+		BufferedReader in = new BufferedReader(reader, 1 << 16);
+		ClientRowParser parser = new ClientRowParser(formato,
+				formato == ClientRowParser.Formato.CSV ? in.readLine() : null, validador, leitorJson);
+
+		Execucao execucao = new Execucao(importId, pularLinhas, checkpoint);
+		BlockingQueue<Lote> fila = new ArrayBlockingQueue<>(queueCapacity);
+		ExecutorService gravadores = Executors.newFixedThreadPool(writers);
+		for (int i = 0; i < writers; i++) {
+			gravadores.execute(() -> gravar(fila, execucao));
+		}
+
+		long linha = 0;
+		try {
+			List<String> bloco = new ArrayList<>(batchSize);
+			String texto;
+			while (execucao.falha.get() == null && (texto = in.readLine()) != null) {
+				linha++;
+				if (linha <= pularLinhas) {
+					continue;
+				}
+				bloco.add(texto);
+				if (bloco.size() == batchSize) {
+					entregar(fila, converter(parser, bloco, linha, execucao), execucao);
+					bloco = new ArrayList<>(batchSize);
+				}
+			}
+			if (!bloco.isEmpty() && execucao.falha.get() == null) {
+				entregar(fila, converter(parser, bloco, linha, execucao), execucao);
+			}
+			for (int i = 0; i < writers; i++) {
+				entregar(fila, FIM, execucao);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			execucao.falha.compareAndSet(null, e);
+		} catch (RuntimeException | IOException e) {
+			execucao.falha.compareAndSet(null, e);
+		} finally {
+			if (execucao.falha.get() != null) {
+				gravadores.shutdownNow();
+			} else {
+				gravadores.shutdown();
+			}
+			aguardar(gravadores);
+		}
+
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		Throwable falha = execucao.falha.get();
+		ClientImportReportDTO relatorio = new ClientImportReportDTO(falha == null ? "COMPLETED" : "FAILED", importId,
+				linha, execucao.importadas.get(), execucao.rejeitadas.get(), execucao.checkpoint(), segundos,
+				falha == null ? null : String.valueOf(falha.getMessage()), execucao.rejeicoes());
+		LOG.info("Client import {}: {} imported, {} rejected, checkpoint {}, {} rows/s", relatorio.getStatus(),
+				relatorio.getImported(), relatorio.getRejected(), relatorio.getCheckpoint(),
+				Math.round(relatorio.getRowsPerSecond()));
+		return relatorio;
+	}
+
+	private Lote converter(ClientRowParser parser, List<String> bloco, long linhaFinal, Execucao execucao) {
+		Object[] resultados = new Object[bloco.size()];
+		parsePool.invoke(new ConverterBloco(bloco, resultados, 0, bloco.size(), parser));
+		List<Client> clientes = new ArrayList<>(bloco.size());
+		List<String> chaves = new ArrayList<>(bloco.size());
+		long primeiraLinha = linhaFinal - bloco.size() + 1;
+		for (int i = 0; i < resultados.length; i++) {
+			Object resultado = resultados[i];
+			if (resultado instanceof Client) {
+				clientes.add((Client) resultado);
+				chaves.add(execucao.importId + ":" + (primeiraLinha + i));
+			} else if (resultado != null) {
+				execucao.rejeitar(primeiraLinha + i, (String) resultado);
+				linhasRejeitadas.increment();
+			}
+		}
+		return new Lote(execucao.proximoLote++, linhaFinal, clientes, chaves);
+	}
+
+	private static void entregar(BlockingQueue<Lote> fila, Lote lote, Execucao execucao) throws InterruptedException {
+		while (!fila.offer(lote, 100, TimeUnit.MILLISECONDS)) {
+			if (execucao.falha.get() != null) {
+				return;
+			}
+		}
+	}
+
+	private void gravar(BlockingQueue<Lote> fila, Execucao execucao) {
+		try {
+			while (true) {
+				Lote lote = fila.take();
+				if (lote == FIM) {
+					return;
+				}
+				if (!lote.clientes.isEmpty()) {
+					long[] nosShards = shards != null ? shards.insertBatch(lote.clientes, lote.chaves) : null;
+					long[] ids = transactionTemplate.execute(status -> {
+						long[] gerados = nosShards != null ? nosShards : repository.insertBatch(lote.clientes);
+						changes.registrarInsercoes(gerados);
+						generation.registrarEscrita();
+						return gerados;
+					});
+					long maior = 0;
+					for (long id : ids) {
+						maior = Math.max(maior, id);
+					}
+					validador.registrarInsercao(maior);
+					relay.publicarLote(maior);
+					execucao.importadas.addAndGet(ids.length);
+					linhasImportadas.increment(ids.length);
+				}
+				execucao.concluir(lote);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			execucao.falha.compareAndSet(null, e);
+		}
+	}
+
+	private static void aguardar(ExecutorService gravadores) {
+		try {
+			while (!gravadores.awaitTermination(1, TimeUnit.SECONDS)) {
+				// lotes ainda em gravação
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * Divide o lote ao meio até o limiar e converte cada pedaço em uma thread
+	 * do pool; o resultado de cada linha vai para a mesma posição do array.
+	 */
+	private static final class ConverterBloco extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int LIMIAR = 256;
+
+		private final transient List<String> linhas;
+		private final transient Object[] resultados;
+		private final int de;
+		private final int ate;
+		private final transient ClientRowParser parser;
+
+		ConverterBloco(List<String> linhas, Object[] resultados, int de, int ate, ClientRowParser parser) {
+			this.linhas = linhas;
+			this.resultados = resultados;
+			this.de = de;
+			this.ate = ate;
+			this.parser = parser;
+		}
+
+		@Override
+		protected void compute() {
+			if (ate - de <= LIMIAR) {
+				preencher(linhas, resultados, de, ate, parser);
+				return;
+			}
+			int meio = (de + ate) >>> 1;
+			invokeAll(new ConverterBloco(linhas, resultados, de, meio, parser),
+					new ConverterBloco(linhas, resultados, meio, ate, parser));
+		}
+
+		static void preencher(List<String> linhas, Object[] resultados, int de, int ate, ClientRowParser parser) {
+			for (int i = de; i < ate; i++) {
+				String linha = linhas.get(i);
+				resultados[i] = linha.trim().isEmpty() ? null : parser.converter(linha);
+			}
+		}
+	}
+
+	private static final class Lote {
+		final long seq;
+		final long linhaFinal;
+		final List<Client> clientes;
+		final List<String> chaves;
+
+		Lote(long seq, long linhaFinal, List<Client> clientes, List<String> chaves) {
+			this.seq = seq;
+			this.linhaFinal = linhaFinal;
+			this.clientes = clientes;
+			this.chaves = chaves;
+		}
+	}
+
+	private static final class Execucao {
+		final String importId;
+		final AtomicReference<Throwable> falha = new AtomicReference<>();
+		final AtomicLong importadas = new AtomicLong();
+		final AtomicLong rejeitadas = new AtomicLong();
+		final LongConsumer destinoCheckpoint;
+		final List<String> rejeicoes = new ArrayList<>();
+		final Map<Long, Long> concluidos = new HashMap<>();
+		final long inicio = System.nanoTime();
+		long ultimoLog = inicio;
+		long proximoLote;
+		long proximoAConfirmar;
+		long checkpoint;
+
+		Execucao(String importId, long pularLinhas, LongConsumer destinoCheckpoint) {
+			this.importId = importId;
+			this.checkpoint = pularLinhas;
+			this.destinoCheckpoint = destinoCheckpoint;
+		}
+
+		synchronized void rejeitar(long linha, String motivo) {
+			rejeitadas.incrementAndGet();
+			if (rejeicoes.size() < MAX_REJEICOES_NO_RELATORIO) {
+				rejeicoes.add("line " + linha + ": " + motivo);
+			}
+		}
+
+		synchronized List<String> rejeicoes() {
+			return new ArrayList<>(rejeicoes);
+		}
+
+		synchronized long checkpoint() {
+			return checkpoint;
+		}
+
+		synchronized void concluir(Lote lote) {
+			concluidos.put(lote.seq, lote.linhaFinal);
+			Long linhaFinal;
+			long anterior = checkpoint;
+			while ((linhaFinal = concluidos.remove(proximoAConfirmar)) != null) {
+				checkpoint = linhaFinal;
+				proximoAConfirmar++;
+			}
+			if (checkpoint != anterior && destinoCheckpoint != null) {
+				destinoCheckpoint.accept(checkpoint);
+			}
+			long agora = System.nanoTime();
+			if (agora - ultimoLog > TimeUnit.SECONDS.toNanos(10)) {
+				ultimoLog = agora;
+				long processadas = importadas.get() + rejeitadas.get();
+				LOG.info("Client import: {} rows processed, checkpoint {}, {} rows/s", processadas, checkpoint,
+						Math.round(processadas / ((agora - inicio) / 1e9)));
+			}
+		}
+	}
+
+}
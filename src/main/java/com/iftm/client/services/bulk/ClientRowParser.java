@@ -0,0 +1,162 @@
+package com.iftm.client.services.bulk;
+
+import java.io.IOException;
+import java.security.InvalidParameterException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.util.Validador;
+
+/*
+ * Converte uma linha do arquivo em Client, ou em uma mensagem de rejeição.
+ * Sem estado mutável: a mesma instância é usada por todas as threads do parse.
+ * CSV exige cabeçalho (name, cpf, income, birthDate, children em qualquer ordem);
+ * NDJSON é um objeto JSON por linha com os campos de ClientDTO.
+ */
+public class ClientRowParser {
+
+	public enum Formato {
+		CSV, NDJSON
+	}
+
+	private static final String[] COLUNAS = { "name", "cpf", "income", "birthDate", "children" };
+
+	private final Formato formato;
+	private final Validador validador;
+	private final ObjectReader leitorJson;
+	private final int[] posicoes;
+
+	public ClientRowParser(Formato formato, String cabecalho, Validador validador, ObjectReader leitorJson) {
+		this.formato = formato;
+		this.validador = validador;
+		this.leitorJson = leitorJson;
+		this.posicoes = formato == Formato.CSV ? posicoes(cabecalho) : null;
+	}
+
+	/*
+	 * Retorna um Client ou uma String com o motivo da rejeição.
+	 */
+	public Object converter(String linha) {
+		try {
+			return formato == Formato.CSV ? deCsv(linha) : deJson(linha);
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			return e.getMessage();
+		} catch (JsonProcessingException e) {
+			return "Invalid JSON : " + e.getOriginalMessage();
+		} catch (IOException e) {
+			return e.getMessage();
+		}
+	}
+
+	private Client deCsv(String linha) {
+		List<String> campos = dividir(linha);
+		String name = campo(campos, 0);
+		String cpf = campo(campos, 1);
+		String income = campo(campos, 2);
+		String birthDate = campo(campos, 3);
+		String children = campo(campos, 4);
+		return validar(name, cpf, income == null ? null : Double.valueOf(income), data(birthDate),
+				children == null ? null : Integer.valueOf(children));
+	}
+
+	private Client deJson(String linha) throws IOException {
+		ClientDTO dto = leitorJson.readValue(linha);
+		return validar(dto.getName(), dto.getCpf(), dto.getIncome(), dto.getBirthDate(), dto.getChildren());
+	}
+
+	private Client validar(String name, String cpf, Double income, Instant birthDate, Integer children) {
+		if (name == null || name.trim().isEmpty()) {
+			throw new IllegalArgumentException("Missing name");
+		}
+		if (income != null && (income.isNaN() || income < 0)) {
+			throw new IllegalArgumentException("Invalid income : " + income);
+		}
+		if (children != null && children < 0) {
+			throw new IllegalArgumentException("Invalid children : " + children);
+		}
+		return new Client(null, name.trim(), validador.normalizarCpf(cpf), income, birthDate, children);
+	}
+
+	/*
+	 * Aceita instante ISO-8601 ou só a data (meia-noite UTC).
+	 */
+	private static Instant data(String valor) {
+		if (valor == null) {
+			return null;
+		}
+		return valor.length() == 10 ? LocalDate.parse(valor).atStartOfDay().toInstant(ZoneOffset.UTC)
+				: Instant.parse(valor);
+	}
+
+	private String campo(List<String> campos, int coluna) {
+		int posicao = posicoes[coluna];
+		if (posicao < 0 || posicao >= campos.size()) {
+			return null;
+		}
+		String valor = campos.get(posicao).trim();
+		return valor.isEmpty() ? null : valor;
+	}
+
+	private static int[] posicoes(String cabecalho) {
+		if (cabecalho == null) {
+			throw new InvalidParameterException("Missing CSV header");
+		}
+		Map<String, Integer> indices = new HashMap<>();
+		List<String> nomes = dividir(cabecalho);
+		for (int i = 0; i < nomes.size(); i++) {
+			indices.put(nomes.get(i).trim().replace("_", "").toLowerCase(), i);
+		}
+		int[] posicoes = new int[COLUNAS.length];
+		for (int i = 0; i < COLUNAS.length; i++) {
+			posicoes[i] = indices.getOrDefault(COLUNAS[i].toLowerCase(), -1);
+		}
+		if (posicoes[0] < 0 || posicoes[1] < 0) {
+			throw new InvalidParameterException("CSV header must have name and cpf columns");
+		}
+		return posicoes;
+	}
+
+	/*
+	 * Divide uma linha CSV respeitando aspas ("a, b" e "" como aspas literais).
+	 */
+	static List<String> dividir(String linha) {
+		List<String> campos = new ArrayList<>();
+		StringBuilder atual = new StringBuilder();
+		boolean entreAspas = false;
+		for (int i = 0; i < linha.length(); i++) {
+			char c = linha.charAt(i);
+			if (entreAspas) {
+				if (c == '"') {
+					if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+						atual.append('"');
+						i++;
+					} else {
+						entreAspas = false;
+					}
+				} else {
+					atual.append(c);
+				}
+			} else if (c == '"') {
+				entreAspas = true;
+			} else if (c == ',') {
+				campos.add(atual.toString());
+				atual.setLength(0);
+			} else {
+				atual.append(c);
+			}
+		}
+		campos.add(atual.toString());
+		return campos;
+	}
+
+}
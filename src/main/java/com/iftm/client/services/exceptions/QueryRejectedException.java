@@ -0,0 +1,10 @@
+package com.iftm.client.services.exceptions;
+
+public class QueryRejectedException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	
+	public QueryRejectedException(String msg) {
+		super(msg, null, false, false);
+	}
+
+}
@@ -7,4 +7,12 @@ public class ResourceNotFoundException extends RuntimeException {
 		super(msg);
 	}
 
+	/*
+	 * Para ausências esperadas (ids inexistentes, varreduras): sem stack trace
+	 * nem supressão, o custo de criar a exceção fica próximo ao de um objeto comum.
+	 */
+	public ResourceNotFoundException(String msg, boolean writableStackTrace) {
+		super(msg, null, false, writableStackTrace);
+	}
+
 }
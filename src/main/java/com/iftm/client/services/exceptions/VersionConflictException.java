@@ -0,0 +1,10 @@
+package com.iftm.client.services.exceptions;
+
+public class VersionConflictException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	
+	public VersionConflictException(String msg) {
+		super(msg, null, false, false);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.iftm.client.services.invalidation;
+
+import java.io.Serializable;
+
+import com.iftm.client.entities.ClientChange;
+
+/*
+ * Mensagem do barramento: qual cliente mudou, em qual nó e quando (epoch ms,
+ * usado para medir o atraso de entrega). Serializable para transportes que
+ * precisem levá-la para fora da JVM.
+ */
+public class ClientInvalidation implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final String origem;
+	private final long clientId;
+	private final ClientChange.Type type;
+	private final Long version;
+	private final long instante;
+
+	public ClientInvalidation(String origem, long clientId, ClientChange.Type type, Long version, long instante) {
+		this.origem = origem;
+		this.clientId = clientId;
+		this.type = type;
+		this.version = version;
+		this.instante = instante;
+	}
+
+	public String getOrigem() {
+		return origem;
+	}
+
+	public long getClientId() {
+		return clientId;
+	}
+
+	public ClientChange.Type getType() {
+		return type;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public long getInstante() {
+		return instante;
+	}
+
+}
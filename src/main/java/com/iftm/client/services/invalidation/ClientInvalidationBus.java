@@ -0,0 +1,16 @@
+package com.iftm.client.services.invalidation;
+
+import java.util.function.Consumer;
+
+/*
+ * Transporte das invalidações entre as instâncias da aplicação. Cada nó publica
+ * as próprias escritas e recebe as de todos (inclusive as suas); a entrega é
+ * no máximo uma vez, então caches locais devem ter também um TTL/geração.
+ */
+public interface ClientInvalidationBus {
+
+	void publicar(ClientInvalidation invalidation);
+
+	void assinar(Consumer<ClientInvalidation> receptor);
+
+}
@@ -0,0 +1,93 @@
+package com.iftm.client.services.invalidation;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.services.util.ClientGeneration;
+import com.iftm.client.services.util.Validador;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Liga o nó ao barramento. Na saída, cada mudança do outbox (ClientChangeDTO)
+ * vira uma invalidação depois do commit. Na entrada, invalidações de outros nós
+ * avançam a geração local (ETags e páginas comprimidas) e os limites de id do
+ * Validador; todas, locais ou não, são republicadas como evento do Spring para
+ * os caches deste nó.
+ */
+@Component
+public class ClientInvalidationRelay {
+
+	private final ClientInvalidationBus bus;
+	private final ClientGeneration generation;
+	private final Validador validador;
+	private final ApplicationEventPublisher publisher;
+	private final String nodeId;
+
+	private final Counter publicadas;
+	private final Counter recebidas;
+	private final Timer atraso;
+
+	public ClientInvalidationRelay(ClientInvalidationBus bus, ClientGeneration generation, Validador validador,
+			ApplicationEventPublisher publisher, MeterRegistry registry,
+			@Value("${client.node-id:#{T(java.util.UUID).randomUUID().toString()}}") String nodeId) {
+		this.bus = bus;
+		this.generation = generation;
+		this.validador = validador;
+		this.publisher = publisher;
+		this.nodeId = nodeId;
+		this.publicadas = registry.counter("clients.invalidation.published");
+		this.recebidas = registry.counter("clients.invalidation.received", "origin", "remote");
+		this.atraso = registry.timer("clients.invalidation.lag");
+	}
+
+	@PostConstruct
+	public void assinar() {
+		bus.assinar(this::receber);
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void publicar(ClientChangeDTO change) {
+		bus.publicar(new ClientInvalidation(nodeId, change.getClientId(), change.getType(), change.getVersion(),
+				System.currentTimeMillis()));
+		publicadas.increment();
+	}
+
+	/*
+	 * Carga em massa: um único aviso por lote já confirmado, com o maior id
+	 * inserido (avança a geração e os limites de id dos outros nós).
+	 */
+	public void publicarLote(long maiorId) {
+		bus.publicar(new ClientInvalidation(nodeId, maiorId, ClientChange.Type.INSERT, 0L, System.currentTimeMillis()));
+		publicadas.increment();
+	}
+
+	void receber(ClientInvalidation invalidation) {
+		if (!nodeId.equals(invalidation.getOrigem())) {
+			recebidas.increment();
+			atraso.record(Math.max(0, System.currentTimeMillis() - invalidation.getInstante()), TimeUnit.MILLISECONDS);
+			generation.registrarEscritaRemota();
+			if (invalidation.getType() == ClientChange.Type.INSERT) {
+				validador.registrarInsercao(invalidation.getClientId());
+			} else if (invalidation.getType() == ClientChange.Type.DELETE) {
+				validador.registrarRemocao(invalidation.getClientId());
+			}
+		}
+		publisher.publishEvent(invalidation);
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.iftm.client.services.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+ * Transporte dentro da própria JVM: entrega na hora, na thread de quem publica,
+ * a todos os assinantes. Serve para um único nó e para testes; em produção com
+ * várias instâncias outro ClientInvalidationBus (client.invalidation.transport)
+ * deve ser registrado.
+ */
+@Component
+@ConditionalOnProperty(name = "client.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackClientInvalidationBus implements ClientInvalidationBus {
+
+	private final List<Consumer<ClientInvalidation>> receptores = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void publicar(ClientInvalidation invalidation) {
+		for (Consumer<ClientInvalidation> receptor : receptores) {
+			receptor.accept(invalidation);
+		}
+	}
+
+	@Override
+	public void assinar(Consumer<ClientInvalidation> receptor) {
+		receptores.add(receptor);
+	}
+
+}
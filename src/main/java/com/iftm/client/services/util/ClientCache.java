@@ -0,0 +1,359 @@
+package com.iftm.client.services.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.repositories.ClientChangeRepository;
+import com.iftm.client.services.invalidation.ClientInvalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Cache LRU do findById. Toda escrita, local ou de outro nó, chega aqui como
+ * ClientInvalidation (ClientInvalidationRelay) e remove o id. A entrega das
+ * invalidações é no máximo uma vez, então cada entrada também expira ttl
+ * depois de gravada: uma invalidação perdida deixa o valor (e a versão usada
+ * como ETag e no If-Match) desatualizado por no máximo ttl. Uma leitura só
+ * entra no cache se nenhuma invalidação aconteceu enquanto ela ia ao banco,
+ * senão o valor lido poderia ser anterior ao commit que acabou de invalidá-lo.
+ * Isso vale para leituras no primário: com uma réplica atrasada o valor lido
+ * pode ser antigo mesmo sem invalidação, então não combine com a réplica.
+ *
+ * Com client.cache.snapshot.file as entradas são gravadas no desligamento, na
+ * ordem de uso, junto com o último seq do outbox; na subida o arquivo é mapeado
+ * em memória, os ids alterados depois daquele seq são descartados e o restante
+ * volta para o cache antes de a aplicação ficar pronta, com o ttl contado a
+ * partir da carga (elas acabaram de ser conferidas contra o outbox).
+ */
+@Component
+@ConditionalOnProperty("client.cache.enabled")
+public class ClientCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientCache.class);
+
+	private static final int MAGIC = 0x434C4331;
+	private static final int INCOME_NULL = 1;
+	private static final int CHILDREN_NULL = 1 << 1;
+	private static final int VERSION_NULL = 1 << 2;
+	private static final int BIRTH_DATE_NULL = 1 << 3;
+	private static final int LOTE_MUDANCAS = 1000;
+
+	private final ClientChangeRepository changes;
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final Path snapshot;
+	private final long seqMargin;
+	private final Map<Long, Entrada> entradas;
+	private final AtomicLong invalidacoes = new AtomicLong();
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Timer carregamento;
+
+	public ClientCache(ClientChangeRepository changes, MeterRegistry registry,
+			@Value("${client.cache.max-entries:10000}") int maxEntries,
+			@Value("${client.cache.ttl-ms:60000}") long ttlMs,
+			@Value("${client.cache.snapshot.file:}") String snapshot,
+			@Value("${client.cache.snapshot.seq-margin:1000}") long seqMargin) {
+		this.changes = changes;
+		this.maxEntries = maxEntries;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+		this.snapshot = snapshot.isEmpty() ? null : Paths.get(snapshot);
+		this.seqMargin = seqMargin;
+		this.entradas = Collections.synchronizedMap(new LinkedHashMap<Long, Entrada>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+				return size() > maxEntries;
+			}
+		});
+		this.hits = registry.counter("clients.cache.requests", "result", "hit");
+		this.misses = registry.counter("clients.cache.requests", "result", "miss");
+		this.carregamento = registry.timer("clients.cache.snapshot.load");
+		registry.gauge("clients.cache.size", entradas, Map::size);
+	}
+
+	/*
+	 * Cópia: quem recebe o DTO pode alterá-lo sem mexer no cache.
+	 */
+	public ClientDTO get(long id) {
+		return get(id, System.nanoTime());
+	}
+
+	ClientDTO get(long id, long agoraNanos) {
+		Entrada entrada = valida(id, agoraNanos);
+		if (entrada == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return copia(entrada.dto);
+	}
+
+	/*
+	 * Marca a ser lida antes da consulta ao banco e devolvida em put().
+	 */
+	public long marca() {
+		return invalidacoes.get();
+	}
+
+	public void put(ClientDTO dto, long marca) {
+		put(dto, marca, System.nanoTime());
+	}
+
+	void put(ClientDTO dto, long marca, long agoraNanos) {
+		if (invalidacoes.get() == marca) {
+			entradas.put(dto.idValue(), new Entrada(copia(dto), agoraNanos + ttlNanos));
+		}
+	}
+
+	public Long version(long id) {
+		return version(id, System.nanoTime());
+	}
+
+	Long version(long id, long agoraNanos) {
+		Entrada entrada = valida(id, agoraNanos);
+		return entrada == null ? null : entrada.dto.getVersion();
+	}
+
+	private Entrada valida(long id, long agoraNanos) {
+		Entrada entrada = entradas.get(id);
+		if (entrada != null && entrada.expiraEm - agoraNanos <= 0) {
+			entradas.remove(id, entrada);
+			return null;
+		}
+		return entrada;
+	}
+
+	public int size() {
+		return entradas.size();
+	}
+
+	@EventListener
+	public void invalidar(ClientInvalidation invalidation) {
+		invalidar(invalidation.getClientId());
+	}
+
+	public void invalidar(long id) {
+		invalidacoes.incrementAndGet();
+		entradas.remove(id);
+	}
+
+	@EventListener(ApplicationStartedEvent.class)
+	public void carregarSnapshot() {
+		if (snapshot == null || !Files.exists(snapshot)) {
+			return;
+		}
+		long inicio = System.nanoTime();
+		try {
+			int carregadas = carregar(snapshot);
+			LOG.info("Client cache: {} entries loaded from {} in {} ms", carregadas, snapshot,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+		} catch (IOException | RuntimeException e) {
+			entradas.clear();
+			LOG.warn("Client cache: snapshot {} ignored: {}", snapshot, e.toString());
+		} finally {
+			carregamento.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/*
+	 * No fechamento do contexto, antes da destruição dos beans: o repositório
+	 * ainda pode ser usado (no perfil fast ele pode nem ter sido criado ainda).
+	 */
+	@EventListener(ContextClosedEvent.class)
+	public void gravarSnapshot() {
+		if (snapshot == null) {
+			return;
+		}
+		try {
+			gravar(snapshot);
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Client cache: could not write snapshot {}: {}", snapshot, e.toString());
+		}
+	}
+
+	/*
+	 * O seq é lido antes de copiar as entradas: mudanças posteriores ficam acima
+	 * dele e serão descartadas na carga.
+	 */
+	void gravar(Path arquivo) throws IOException {
+		long seq = ultimoSeq();
+		long agora = System.nanoTime();
+		List<ClientDTO> copia = new ArrayList<>();
+		synchronized (entradas) {
+			for (Entrada entrada : entradas.values()) {
+				if (entrada.expiraEm - agora > 0) {
+					copia.add(entrada.dto);
+				}
+			}
+		}
+		Path temporario = Paths.get(arquivo + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeLong(seq);
+			out.writeInt(copia.size());
+			for (ClientDTO dto : copia) {
+				escrever(out, dto);
+			}
+		}
+		Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/*
+	 * Um banco com seq menor que o do snapshot não é o mesmo banco (H2 em
+	 * memória recriado, restore): o snapshot inteiro é descartado. seqMargin
+	 * cobre transações que pegaram um seq menor mas só confirmaram depois da
+	 * leitura do último seq na gravação.
+	 */
+	int carregar(Path arquivo) throws IOException {
+		Map<Long, ClientDTO> lidas = new LinkedHashMap<>();
+		long seq;
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Invalid client cache snapshot");
+			}
+			seq = buffer.getLong();
+			int total = buffer.getInt();
+			for (int i = 0; i < total; i++) {
+				ClientDTO dto = ler(buffer);
+				lidas.put(dto.idValue(), dto);
+			}
+		}
+		long atual = ultimoSeq();
+		if (atual < seq) {
+			LOG.info("Client cache: snapshot is ahead of the database (seq {} > {}), discarded", seq, atual);
+			return 0;
+		}
+		long marca = marca();
+		for (long desde = Math.max(0, seq - seqMargin);;) {
+			List<ClientChange> lote = changes.findSince(desde, PageRequest.of(0, LOTE_MUDANCAS));
+			for (ClientChange change : lote) {
+				lidas.remove(change.getClientId());
+				desde = change.getSeq();
+			}
+			if (lote.size() < LOTE_MUDANCAS || lidas.isEmpty()) {
+				break;
+			}
+		}
+		if (invalidacoes.get() != marca) {
+			return 0;
+		}
+		/* o arquivo vem do menos para o mais usado: se sobrar, saem os primeiros */
+		int pular = Math.max(0, lidas.size() - maxEntries);
+		int carregadas = 0;
+		long expiraEm = System.nanoTime() + ttlNanos;
+		for (ClientDTO dto : lidas.values()) {
+			if (pular > 0) {
+				pular--;
+			} else if (entradas.putIfAbsent(dto.idValue(), new Entrada(dto, expiraEm)) == null) {
+				carregadas++;
+			}
+		}
+		return carregadas;
+	}
+
+	private long ultimoSeq() {
+		Long seq = changes.findMaxSeq();
+		return seq == null ? 0 : seq;
+	}
+
+	private static void escrever(DataOutputStream out, ClientDTO dto) throws IOException {
+		int nulos = (dto.hasIncome() ? 0 : INCOME_NULL) | (dto.hasChildren() ? 0 : CHILDREN_NULL)
+				| (dto.hasVersion() ? 0 : VERSION_NULL) | (dto.getBirthDate() == null ? BIRTH_DATE_NULL : 0);
+		out.writeLong(dto.idValue());
+		out.writeByte(nulos);
+		escrever(out, dto.getName());
+		escrever(out, dto.getCpf());
+		out.writeDouble(dto.incomeValue());
+		out.writeInt(dto.childrenValue());
+		out.writeLong(dto.versionValue());
+		out.writeLong(dto.getBirthDate() == null ? 0 : dto.getBirthDate().getEpochSecond());
+		out.writeInt(dto.getBirthDate() == null ? 0 : dto.getBirthDate().getNano());
+	}
+
+	private static void escrever(DataOutputStream out, String valor) throws IOException {
+		if (valor == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static ClientDTO ler(ByteBuffer buffer) {
+		long id = buffer.getLong();
+		int nulos = buffer.get();
+		String name = lerTexto(buffer);
+		String cpf = lerTexto(buffer);
+		double income = buffer.getDouble();
+		int children = buffer.getInt();
+		long version = buffer.getLong();
+		long segundos = buffer.getLong();
+		int nanos = buffer.getInt();
+		Instant birthDate = (nulos & BIRTH_DATE_NULL) != 0 ? null : Instant.ofEpochSecond(segundos, nanos);
+		return new ClientDTO(id, name, cpf, income, (nulos & INCOME_NULL) != 0, birthDate, children,
+				(nulos & CHILDREN_NULL) != 0, version, (nulos & VERSION_NULL) != 0);
+	}
+
+	private static String lerTexto(ByteBuffer buffer) {
+		int tamanho = buffer.getInt();
+		if (tamanho < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[tamanho];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static ClientDTO copia(ClientDTO dto) {
+		return new ClientDTO(dto.idValue(), dto.getName(), dto.getCpf(), dto.incomeValue(), !dto.hasIncome(),
+				dto.getBirthDate(), dto.childrenValue(), !dto.hasChildren(), dto.versionValue(), !dto.hasVersion());
+	}
+
+	private static final class Entrada {
+		final ClientDTO dto;
+		final long expiraEm;
+
+		Entrada(ClientDTO dto, long expiraEm) {
+			this.dto = dto;
+			this.expiraEm = expiraEm;
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.iftm.client.services.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Geração da tabela de clientes nesta instância: muda a cada escrita e serve
+ * de ETag para as listagens paginadas. Começa no horário de subida para que
+ * ETags emitidos antes de um restart não sejam reaproveitados.
+ */
+@Component
+public class ClientGeneration {
+
+	private final AtomicLong geracao = new AtomicLong(System.currentTimeMillis());
+
+	public long atual() {
+		return geracao.get();
+	}
+
+	public String etag() {
+		return "\"g" + geracao.get() + "\"";
+	}
+
+	/*
+	 * ETags fortes precisam diferir entre representações (JSON, CBOR, Smile).
+	 */
+	public String etag(String variante) {
+		return etag(geracao.get(), variante);
+	}
+
+	public String etag(long geracao, String variante) {
+		return variante == null ? "\"g" + geracao + "\"" : "\"g" + geracao + "-" + variante + "\"";
+	}
+
+	/*
+	 * Dentro de uma transação o incremento só acontece depois do commit; antes
+	 * disso uma listagem ainda veria os dados antigos com a geração nova.
+	 */
+	public void registrarEscrita() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					geracao.incrementAndGet();
+				}
+			});
+		} else {
+			geracao.incrementAndGet();
+		}
+	}
+
+	/*
+	 * Escrita feita em outro nó e já confirmada lá (ClientInvalidationRelay).
+	 */
+	public void registrarEscritaRemota() {
+		geracao.incrementAndGet();
+	}
+
+}
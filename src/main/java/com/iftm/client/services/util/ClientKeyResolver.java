@@ -0,0 +1,66 @@
+package com.iftm.client.services.util;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+ * Identifica o chamador para o rate limit e para o read-your-writes: a
+ * X-API-Key quando enviada, senão o IP do cliente.
+ *
+ * Atrás do balanceador o getRemoteAddr é o IP do proxy. Quando ele casa com
+ * client.trusted-proxies (expressão regular), o IP vem do X-Forwarded-For,
+ * lido da direita para a esquerda até o primeiro endereço que não é de um
+ * proxy confiável: os endereços mais à esquerda vêm do próprio cliente e
+ * podem ser forjados. Sem proxies confiáveis o cabeçalho é ignorado.
+ */
+@Component
+public class ClientKeyResolver {
+
+	public static final String API_KEY_HEADER = "X-API-Key";
+	public static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+	private final Pattern trustedProxies;
+
+	public ClientKeyResolver(@Value("${client.trusted-proxies:}") String trustedProxies) {
+		this.trustedProxies = trustedProxies.trim().isEmpty() ? null : Pattern.compile(trustedProxies.trim());
+	}
+
+	public String chave(HttpServletRequest request) {
+		String apiKey = request.getHeader(API_KEY_HEADER);
+		return apiKey != null ? "key:" + apiKey : "ip:" + ip(request);
+	}
+
+	public String ip(HttpServletRequest request) {
+		String remoto = request.getRemoteAddr();
+		if (!confiavel(remoto)) {
+			return remoto;
+		}
+		List<String> encaminhados = new ArrayList<>();
+		Enumeration<String> cabecalhos = request.getHeaders(FORWARDED_FOR_HEADER);
+		while (cabecalhos != null && cabecalhos.hasMoreElements()) {
+			for (String endereco : cabecalhos.nextElement().split(",")) {
+				if (!endereco.trim().isEmpty()) {
+					encaminhados.add(endereco.trim());
+				}
+			}
+		}
+		for (int i = encaminhados.size() - 1; i >= 0; i--) {
+			if (!confiavel(encaminhados.get(i))) {
+				return encaminhados.get(i);
+			}
+		}
+		return encaminhados.isEmpty() ? remoto : encaminhados.get(0);
+	}
+
+	private boolean confiavel(String endereco) {
+		return trustedProxies != null && endereco != null && trustedProxies.matcher(endereco).matches();
+	}
+
+}
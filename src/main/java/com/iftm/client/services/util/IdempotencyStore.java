@@ -0,0 +1,163 @@
+package com.iftm.client.services.util;
+
+import java.security.InvalidParameterException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.iftm.client.dto.ClientDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Chaves de idempotência do POST /clients. A primeira requisição com uma chave
+ * registra um futuro e executa a inserção; as repetições recebem o mesmo
+ * ClientDTO, e as que chegam enquanto a primeira ainda está no banco esperam
+ * por ela em vez de inserir de novo. Se a inserção falha a chave é liberada e
+ * a próxima tentativa executa normalmente.
+ *
+ * Cada chave vale por ttl a partir da primeira requisição. Como o ttl é o mesmo
+ * para todas, a fila de chegada também é a ordem de expiração: quando o limite
+ * de chaves é atingido as expiradas saem pela cabeça da fila e, se ainda
+ * faltar espaço, as mais antigas são descartadas (métrica evicted).
+ *
+ * A mesma chave com outro corpo é rejeitada. O armazenamento é local ao nó.
+ */
+@Component
+public class IdempotencyStore {
+
+	private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+	private final Queue<Entrada> chegada = new ConcurrentLinkedQueue<>();
+	private final long ttlNanos;
+	private final int maxKeys;
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter descartadas;
+
+	public IdempotencyStore(MeterRegistry registry,
+			@Value("${client.idempotency.ttl-seconds:86400}") long ttlSeconds,
+			@Value("${client.idempotency.max-keys:100000}") int maxKeys) {
+		this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+		this.maxKeys = maxKeys;
+		this.hits = registry.counter("clients.idempotency.requests", "result", "hit");
+		this.misses = registry.counter("clients.idempotency.requests", "result", "miss");
+		this.descartadas = registry.counter("clients.idempotency.evicted");
+		registry.gauge("clients.idempotency.size", entradas, ConcurrentHashMap::size);
+	}
+
+	public Resultado executar(String chave, ClientDTO requisicao, Supplier<ClientDTO> insercao) {
+		return executar(chave, requisicao, insercao, System.nanoTime());
+	}
+
+	Resultado executar(String chave, ClientDTO requisicao, Supplier<ClientDTO> insercao, long agoraNanos) {
+		String impressao = impressao(requisicao);
+		Entrada nova = new Entrada(chave, impressao, agoraNanos + ttlNanos);
+		while (true) {
+			Entrada existente = entradas.putIfAbsent(chave, nova);
+			if (existente == null) {
+				break;
+			}
+			if (existente.expiraEm - agoraNanos > 0) {
+				if (!existente.impressao.equals(impressao)) {
+					throw new InvalidParameterException("Idempotency-Key reused with a different request body");
+				}
+				hits.increment();
+				return new Resultado(aguardar(existente), true);
+			}
+			if (entradas.replace(chave, existente, nova)) {
+				break;
+			}
+		}
+		misses.increment();
+		chegada.add(nova);
+		limitar(agoraNanos);
+		try {
+			ClientDTO salvo = insercao.get();
+			nova.futuro.complete(salvo);
+			return new Resultado(salvo, false);
+		} catch (RuntimeException e) {
+			entradas.remove(chave, nova);
+			chegada.remove(nova);
+			nova.futuro.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	public int size() {
+		return entradas.size();
+	}
+
+	private void limitar(long agoraNanos) {
+		Entrada cabeca;
+		while ((cabeca = chegada.peek()) != null) {
+			boolean expirada = cabeca.expiraEm - agoraNanos <= 0;
+			boolean cheio = entradas.size() > maxKeys;
+			boolean removida = entradas.get(cabeca.chave) != cabeca;
+			if (!expirada && !cheio && !removida) {
+				return;
+			}
+			if (chegada.remove(cabeca) && entradas.remove(cabeca.chave, cabeca) && !expirada) {
+				descartadas.increment();
+			}
+		}
+	}
+
+	private static ClientDTO aguardar(Entrada entrada) {
+		try {
+			return entrada.futuro.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/*
+	 * Os campos gravados pelo insert; o id e a versão do corpo são ignorados.
+	 */
+	private static String impressao(ClientDTO dto) {
+		return dto.getName() + "|" + dto.getCpf() + "|" + dto.getIncome() + "|" + dto.getBirthDate() + "|"
+				+ dto.getChildren();
+	}
+
+	public static final class Resultado {
+		private final ClientDTO dto;
+		private final boolean repetido;
+
+		Resultado(ClientDTO dto, boolean repetido) {
+			this.dto = dto;
+			this.repetido = repetido;
+		}
+
+		public ClientDTO getDto() {
+			return dto;
+		}
+
+		public boolean isRepetido() {
+			return repetido;
+		}
+	}
+
+	private static final class Entrada {
+		final String chave;
+		final String impressao;
+		final long expiraEm;
+		final CompletableFuture<ClientDTO> futuro = new CompletableFuture<>();
+
+		Entrada(String chave, String impressao, long expiraEm) {
+			this.chave = chave;
+			this.impressao = impressao;
+			this.expiraEm = expiraEm;
+		}
+	}
+
+}
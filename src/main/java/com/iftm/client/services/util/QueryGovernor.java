@@ -0,0 +1,99 @@
+package com.iftm.client.services.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.stereotype.Component;
+
+import com.iftm.client.services.exceptions.QueryRejectedException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Barreira entre os parâmetros da requisição e o banco: limita o tamanho da
+ * página e a profundidade da paginação e só aceita ordenação por colunas
+ * indexadas (ver @Table(indexes) em Client). Toda rejeição vira a métrica
+ * clients.query.rejected com o endpoint e o motivo.
+ */
+@Component
+public class QueryGovernor {
+
+	public static final String FIND_ALL = "findAll";
+	public static final String INCOME = "income";
+	public static final String INCOME_GREATER_THAN = "incomeGreaterThan";
+	public static final String CPF = "cpf";
+	public static final String CHANGES = "changes";
+	public static final String SEARCH = "search";
+	public static final String DUPLICATES = "duplicates";
+
+	private static final Map<String, Set<String>> ORDENACOES = new HashMap<>();
+
+	static {
+		ORDENACOES.put(FIND_ALL, new HashSet<>(Arrays.asList("id", "name", "cpf", "income", "birthDate")));
+		ORDENACOES.put(INCOME, new HashSet<>(Arrays.asList("id", "name")));
+		ORDENACOES.put(INCOME_GREATER_THAN, new HashSet<>(Arrays.asList("id", "name", "income")));
+		ORDENACOES.put(CPF, new HashSet<>(Arrays.asList("id", "name", "cpf")));
+		ORDENACOES.put(SEARCH, new HashSet<>(Arrays.asList("id", "name", "cpf", "income", "birthDate")));
+		ORDENACOES.put(DUPLICATES, new HashSet<>(Arrays.asList("id", "score")));
+	}
+
+	private final MeterRegistry registry;
+	private final int maxPageSize;
+	private final long maxOffset;
+
+	/*
+	 * Com shards cada shard devolve offset + size linhas para o merge, então a
+	 * profundidade tem o teto menor de client.sharding.max-offset.
+	 */
+	public QueryGovernor(MeterRegistry registry,
+			@Value("${client.query.max-page-size:1000}") int maxPageSize,
+			@Value("${client.query.max-offset:100000}") long maxOffset,
+			@Value("${client.sharding.urls:}") String shardingUrls,
+			@Value("${client.sharding.max-offset:10000}") long shardedMaxOffset) {
+		this.registry = registry;
+		this.maxPageSize = maxPageSize;
+		this.maxOffset = shardingUrls.trim().isEmpty() ? maxOffset : Math.min(maxOffset, shardedMaxOffset);
+	}
+
+	public PageRequest pageRequest(String endpoint, Integer page, Integer linesPerPage, String direction,
+			String orderBy) {
+		if (page == null || page < 0) {
+			throw rejeitar(endpoint, "page", "Invalid page : " + page);
+		}
+		if (linesPerPage == null || linesPerPage < 1 || linesPerPage > maxPageSize) {
+			throw rejeitar(endpoint, "page-size", "linesPerPage must be between 1 and " + maxPageSize);
+		}
+		if ((long) page * linesPerPage > maxOffset) {
+			throw rejeitar(endpoint, "offset", "Pagination deeper than " + maxOffset + " rows");
+		}
+		Direction direcao = Direction.fromOptionalString(direction)
+				.orElseThrow(() -> rejeitar(endpoint, "direction", "Invalid direction : " + direction));
+		Set<String> permitidas = ORDENACOES.get(endpoint);
+		if (permitidas == null || !permitidas.contains(orderBy)) {
+			throw rejeitar(endpoint, "order-by", "Sorting by " + orderBy + " is not allowed here, use one of " + permitidas);
+		}
+		return PageRequest.of(page, linesPerPage, direcao, orderBy);
+	}
+
+	/*
+	 * Para consultas por cursor (sem página nem ordenação escolhida pelo cliente).
+	 */
+	public int limit(String endpoint, Integer limit) {
+		if (limit == null || limit < 1 || limit > maxPageSize) {
+			throw rejeitar(endpoint, "page-size", "limit must be between 1 and " + maxPageSize);
+		}
+		return limit;
+	}
+
+	private QueryRejectedException rejeitar(String endpoint, String motivo, String mensagem) {
+		registry.counter("clients.query.rejected", "endpoint", endpoint, "reason", motivo).increment();
+		return new QueryRejectedException(mensagem);
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.iftm.client.services.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/*
+ * Lembra, por chamador (X-API-Key ou IP do cliente, ver ClientKeyResolver), o
+ * instante da última escrita. Durante a janela configurada as leituras desse
+ * chamador vão para o primário, então ele sempre enxerga o que acabou de
+ * gravar mesmo com a réplica atrasada.
+ * Sem réplica configurada não guarda nada.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+	private final Map<String, Long> ultimasEscritas = new ConcurrentHashMap<>();
+	private final ClientKeyResolver chaves;
+	private final boolean ativo;
+	private final long janelaNanos;
+	private final int maxChamadores;
+
+	public ReadYourWritesTracker(ClientKeyResolver chaves,
+			@Value("${client.datasource.replica.url:}") String replicaUrl,
+			@Value("${client.datasource.read-your-writes-ms:2000}") long janelaMs,
+			@Value("${client.datasource.read-your-writes-max-callers:100000}") int maxChamadores) {
+		this.chaves = chaves;
+		this.ativo = !replicaUrl.isEmpty();
+		this.janelaNanos = TimeUnit.MILLISECONDS.toNanos(janelaMs);
+		this.maxChamadores = maxChamadores;
+	}
+
+	public void registrarEscrita() {
+		String chamador = chamadorAtual();
+		if (!ativo || chamador == null) {
+			return;
+		}
+		long agora = System.nanoTime();
+		if (ultimasEscritas.size() >= maxChamadores) {
+			ultimasEscritas.values().removeIf(instante -> agora - instante > janelaNanos);
+		}
+		ultimasEscritas.put(chamador, agora);
+	}
+
+	public boolean escreveuRecentemente() {
+		if (!ativo || ultimasEscritas.isEmpty()) {
+			return false;
+		}
+		String chamador = chamadorAtual();
+		Long instante = chamador == null ? null : ultimasEscritas.get(chamador);
+		if (instante == null) {
+			return false;
+		}
+		if (System.nanoTime() - instante > janelaNanos) {
+			ultimasEscritas.remove(chamador, instante);
+			return false;
+		}
+		return true;
+	}
+
+	private String chamadorAtual() {
+		RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+		if (!(atributos instanceof ServletRequestAttributes)) {
+			return null;
+		}
+		return chaves.chave(((ServletRequestAttributes) atributos).getRequest());
+	}
+
+}
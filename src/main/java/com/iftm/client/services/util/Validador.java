@@ -1,16 +1,246 @@
 package com.iftm.client.services.util;
 
+import java.security.InvalidParameterException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.repositories.ShardedClientRepository;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
 
 
 @Component
 public class Validador {
-	
+
+	private static final int TAMANHO_CPF = 11;
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired(required = false)
+	private ShardedClientRepository shards;
+
+	@Value("${client.validation.min-id:1}")
+	private long idMinimo = 1;
+
+	@Value("${client.validation.id-refresh-interval-ms:1000}")
+	private long intervaloAtualizacaoMs = 1000;
+
+	/*
+	 * Limites dos ids existentes: crescem a cada insert e encolhem quando o
+	 * menor/maior id é removido. Sem banco (testes unitários) aceitam tudo.
+	 */
+	private final AtomicLong menorId = new AtomicLong(1);
+	private final AtomicLong maiorId = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong ultimaAtualizacao = new AtomicLong();
+
+	@PostConstruct
+	public void carregarLimites() {
+		if (repository != null) {
+			ultimaAtualizacao.set(System.currentTimeMillis());
+			Long maior = maiorIdNoBanco();
+			Long menor = menorIdNoBanco();
+			maiorId.set(maior == null ? 0 : maior);
+			menorId.set(menor == null ? Long.MAX_VALUE : menor);
+		}
+	}
+
+	/*
+	 * Rejeita, sem ir ao banco, ids que não podem existir. Um id fora dos limites
+	 * conhecidos pode ter sido criado por outra instância: nesse caso os limites
+	 * são relidos do banco, no máximo uma vez por intervalo.
+	 */
 	public void eValido(Long id) {
-		if (id<0 || id>100000) {
-			throw new ResourceNotFoundException("Invalid Id : " + id);
+		if (id < idMinimo) {
+			throw new ResourceNotFoundException("Invalid Id : " + id, false);
+		}
+		if (foraDosLimites(id) && (!ampliarLimitesSePermitido() || foraDosLimites(id))) {
+			throw new ResourceNotFoundException("Invalid Id : " + id, false);
+		}
+	}
+
+	public void registrarInsercao(Long id) {
+		maiorId.accumulateAndGet(id, Math::max);
+		menorId.accumulateAndGet(id, Math::min);
+	}
+
+	/*
+	 * O compareAndSet garante que um insert registrado durante a releitura
+	 * não seja sobrescrito por um limite mais estreito.
+	 */
+	public void registrarRemocao(Long id) {
+		long maior = maiorId.get();
+		long menor = menorId.get();
+		if (repository == null || (id != maior && id != menor)) {
+			return;
+		}
+		Long novoMaior = maiorIdNoBanco();
+		Long novoMenor = menorIdNoBanco();
+		if (id == maior) {
+			maiorId.compareAndSet(maior, novoMaior == null ? 0 : novoMaior);
+		}
+		if (id == menor) {
+			menorId.compareAndSet(menor, novoMenor == null ? Long.MAX_VALUE : novoMenor);
+		}
+	}
+
+	private Long maiorIdNoBanco() {
+		return shards != null ? shards.findMaxId() : repository.findMaxId();
+	}
+
+	private Long menorIdNoBanco() {
+		return shards != null ? shards.findMinId() : repository.findMinId();
+	}
+
+	private boolean foraDosLimites(long id) {
+		return id > maiorId.get() || id < menorId.get();
+	}
+
+	/*
+	 * A releitura só amplia os limites; estreitá-los é papel de registrarRemocao.
+	 */
+	private boolean ampliarLimitesSePermitido() {
+		long agora = System.currentTimeMillis();
+		long anterior = ultimaAtualizacao.get();
+		if (repository == null || agora - anterior < intervaloAtualizacaoMs
+				|| !ultimaAtualizacao.compareAndSet(anterior, agora)) {
+			return false;
+		}
+		Long maior = maiorIdNoBanco();
+		Long menor = menorIdNoBanco();
+		if (maior != null) {
+			registrarInsercao(maior);
+		}
+		if (menor != null) {
+			registrarInsercao(menor);
+		}
+		return true;
+	}
+
+	/*
+	 * Normaliza o CPF para 11 dígitos (aceita '.', '-' e espaços como separadores)
+	 * e confere os dígitos verificadores. Percorre os chars uma única vez, sem regex;
+	 * quando o CPF já vem normalizado a própria instância é devolvida.
+	 */
+	public String normalizarCpf(String cpf) {
+		if (cpf == null) {
+			throw new InvalidParameterException("Invalid CPF : null");
+		}
+		int digitos = 0;
+		boolean normalizado = cpf.length() == TAMANHO_CPF;
+		for (int i = 0; i < cpf.length(); i++) {
+			char c = cpf.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digitos++;
+			} else if (c == '.' || c == '-' || c == ' ') {
+				normalizado = false;
+			} else {
+				throw new InvalidParameterException("Invalid CPF : " + cpf);
+			}
+		}
+		if (digitos != TAMANHO_CPF) {
+			throw new InvalidParameterException("Invalid CPF : " + cpf);
+		}
+		String resultado = normalizado ? cpf : somenteDigitos(cpf, TAMANHO_CPF);
+		if (!digitosVerificadoresValidos(resultado)) {
+			throw new InvalidParameterException("Invalid CPF : " + cpf);
+		}
+		return resultado;
+	}
+
+	/*
+	 * Usado nas buscas parciais (LIKE): apenas remove separadores, sem conferir
+	 * os dígitos verificadores.
+	 */
+	public String normalizarCpfParcial(String cpf) {
+		if (cpf == null) {
+			return "";
+		}
+		int digitos = 0;
+		for (int i = 0; i < cpf.length(); i++) {
+			char c = cpf.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digitos++;
+			} else if (c != '.' && c != '-' && c != ' ') {
+				throw new InvalidParameterException("Invalid CPF : " + cpf);
+			}
+		}
+		if (digitos > TAMANHO_CPF) {
+			throw new InvalidParameterException("Invalid CPF : " + cpf);
+		}
+		return digitos == cpf.length() ? cpf : somenteDigitos(cpf, digitos);
+	}
+
+	/*
+	 * Representação compacta de um CPF já normalizado (cabe em 37 bits).
+	 */
+	public static long cpfComoLong(String cpfNormalizado) {
+		long valor = 0;
+		for (int i = 0; i < cpfNormalizado.length(); i++) {
+			valor = valor * 10 + (cpfNormalizado.charAt(i) - '0');
+		}
+		return valor;
+	}
+
+	public static boolean digitosVerificadoresValidos(String cpf) {
+		boolean todosIguais = true;
+		int soma1 = 0;
+		int soma2 = 0;
+		for (int i = 0; i < 9; i++) {
+			int d = cpf.charAt(i) - '0';
+			soma1 += d * (10 - i);
+			soma2 += d * (11 - i);
+			todosIguais &= cpf.charAt(i) == cpf.charAt(0);
+		}
+		if (todosIguais) {
+			return false;
+		}
+		int dv1 = (soma1 * 10) % 11 % 10;
+		if (cpf.charAt(9) - '0' != dv1) {
+			return false;
+		}
+		soma2 += dv1 * 2;
+		int dv2 = (soma2 * 10) % 11 % 10;
+		return cpf.charAt(10) - '0' == dv2;
+	}
+
+	/*
+	 * CPF válido a partir dos 9 primeiros dígitos (0 a 999999999), com os
+	 * dígitos verificadores calculados pela mesma regra de cima.
+	 */
+	public static String cpfComDigitos(int base) {
+		char[] cpf = new char[TAMANHO_CPF];
+		int soma1 = 0;
+		int soma2 = 0;
+		for (int i = 8; i >= 0; i--) {
+			int d = base % 10;
+			base /= 10;
+			cpf[i] = (char) ('0' + d);
+			soma1 += d * (10 - i);
+			soma2 += d * (11 - i);
+		}
+		int dv1 = (soma1 * 10) % 11 % 10;
+		soma2 += dv1 * 2;
+		cpf[9] = (char) ('0' + dv1);
+		cpf[10] = (char) ('0' + (soma2 * 10) % 11 % 10);
+		return new String(cpf);
+	}
+
+	private static String somenteDigitos(String cpf, int tamanho) {
+		char[] digitos = new char[tamanho];
+		int j = 0;
+		for (int i = 0; i < cpf.length(); i++) {
+			char c = cpf.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digitos[j++] = c;
+			}
 		}
+		return new String(digitos);
 	}
 
-}
\ No newline at end of file
+}
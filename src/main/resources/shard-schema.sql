@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS tb_client (
+	id BIGINT AUTO_INCREMENT PRIMARY KEY,
+	name VARCHAR(255),
+	cpf VARCHAR(255),
+	income DOUBLE,
+	birth_date TIMESTAMP WITH TIME ZONE,
+	children INTEGER,
+	version BIGINT
+);
+CREATE INDEX IF NOT EXISTS idx_client_name ON tb_client (name);
+CREATE INDEX IF NOT EXISTS idx_client_cpf ON tb_client (cpf);
+CREATE INDEX IF NOT EXISTS idx_client_income ON tb_client (income);
+CREATE INDEX IF NOT EXISTS idx_client_birth_date ON tb_client (birth_date);
+ALTER TABLE tb_client ADD COLUMN IF NOT EXISTS import_key VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_client_import_key ON tb_client (import_key);
@@ -0,0 +1,151 @@
+package com.iftm.client.repositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.iftm.client.dto.ClientFields;
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.exceptions.QueryRejectedException;
+
+public class ShardedClientRepositoryTest {
+
+    @Test
+    @DisplayName("Verificar se um shard travado faz a listagem falhar no prazo em vez de prender a requisição")
+    public void testarShardTravadoFalhaNoPrazo() {
+        CountDownLatch liberar = new CountDownLatch(1);
+        DataSource travado = new DelegatingDataSource(shard("travado")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getConnection();
+            }
+        };
+        ShardedClientRepository repository = new ShardedClientRepository(Arrays.asList(shard("ok"), travado), 2, 200, 100, -1);
+        try {
+            long inicio = System.nanoTime();
+            assertThrows(QueryTimeoutException.class,
+                    () -> repository.findAll(PageRequest.of(0, 10), ClientFields.TODOS));
+            assertTrue(System.nanoTime() - inicio < 2_000_000_000L);
+        } finally {
+            liberar.countDown();
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se com um único shard a consulta roda na thread da requisição")
+    public void testarShardUnicoNaThreadDaRequisicao() {
+        String[] thread = new String[1];
+        DataSource unico = new DelegatingDataSource(shard("unico")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                thread[0] = Thread.currentThread().getName();
+                return super.getConnection();
+            }
+        };
+        ShardedClientRepository repository = new ShardedClientRepository(Collections.singletonList(unico), 2, 200, 100, -1);
+        try {
+            assertEquals(0, repository.findAll(PageRequest.of(0, 10), ClientFields.TODOS).getTotalElements());
+            assertEquals(Thread.currentThread().getName(), thread[0]);
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se os shards usam os limites das leituras da API e rejeitam páginas além do teto")
+    public void testarLimitesDosShards() {
+        ShardedClientRepository repository = new ShardedClientRepository(
+                Arrays.asList(shard("limite-a"), shard("limite-b")), 2, 3000, 100, 50);
+        try {
+            for (NamedParameterJdbcTemplate template : shardTemplates(repository)) {
+                assertEquals(100, template.getJdbcTemplate().getMaxRows());
+                assertEquals(3, template.getJdbcTemplate().getQueryTimeout());
+                assertEquals(50, template.getJdbcTemplate().getFetchSize());
+            }
+            assertEquals(0, repository.findAll(PageRequest.of(9, 10), ClientFields.TODOS).getContent().size());
+            assertThrows(QueryRejectedException.class,
+                    () -> repository.findAll(PageRequest.of(10, 10), ClientFields.TODOS));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se repetir um lote que falhou em um dos shards não duplica as linhas já gravadas nos outros")
+    public void testarLoteRepetidoNaoDuplica() {
+        AtomicBoolean falhar = new AtomicBoolean(true);
+        DataSource instavel = new DelegatingDataSource(shard("lote-b")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (falhar.getAndSet(false)) {
+                    throw new SQLException("shard fora do ar");
+                }
+                return super.getConnection();
+            }
+        };
+        DataSource estavel = shard("lote-a");
+        ShardedClientRepository repository = new ShardedClientRepository(Arrays.asList(estavel, instavel), 2, 3000, 100, -1);
+        List<Client> lote = Arrays.asList(new Client(null, "Par", "98765432100", 1000.0, null, 0),
+                new Client(null, "Impar", "52998224725", 2000.0, null, 1));
+        List<String> chaves = Arrays.asList("importacao:1", "importacao:2");
+        try {
+            assertThrows(DataAccessResourceFailureException.class, () -> repository.insertBatch(lote, chaves));
+            assertEquals(1, contar(estavel));
+
+            long[] ids = repository.insertBatch(lote, chaves);
+            long[] repetidos = repository.insertBatch(lote, chaves);
+
+            assertArrayEquals(ids, repetidos);
+            assertEquals(0, ids[0] % 2);
+            assertEquals(1, ids[1] % 2);
+            assertEquals(1, contar(estavel));
+            assertEquals(1, contar(instavel));
+        } finally {
+            repository.close();
+        }
+    }
+
+    private static int contar(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM tb_client", Integer.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<NamedParameterJdbcTemplate> shardTemplates(ShardedClientRepository repository) {
+        return (List<NamedParameterJdbcTemplate>) ReflectionTestUtils.getField(repository, "shards");
+    }
+
+    private static DataSource shard(String nome) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sharded-repository-" + nome + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("shard-schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.iftm.client.resources;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.services.ClientChangeService;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:changefeeddb", "client.changes.gap-timeout-ms=500",
+        "client.changes.poll-ms=100" })
+@AutoConfigureMockMvc
+public class ClientChangeFeedIntegrationTest {
+    @Autowired
+    private MockMvc mockMVC;
+
+    @Autowired
+    private ClientChangeService service;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Caso de testes : Verificar se as escritas aparecem no feed de mudanças e no stream SSE
+     * Arrange:
+     * - base de dado própria : cliente 9 na versão 0
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se get/clients/changes devolve as escritas depois do cursor")
+    public void testarEndPointFeedDeMudancas() throws Exception {
+        //arrange
+        long cursor = service.cursorAtual();
+
+        //act
+        mockMVC.perform(patch("/clients/{id}", 9L).content("{\"children\":3}").contentType("application/merge-patch+json"))
+            .andExpect(status().isNoContent());
+        ResultActions resultadoFeed = mockMVC.perform(get("/clients/changes").param("since", String.valueOf(cursor))
+                .accept(MediaType.APPLICATION_JSON));
+        ResultActions resultadoStream = mockMVC.perform(get("/clients/changes/stream").param("since", String.valueOf(cursor))
+                .accept(MediaType.TEXT_EVENT_STREAM));
+        ResultActions resultadoLimite = mockMVC.perform(get("/clients/changes").param("limit", "0"));
+
+        //assign
+        resultadoFeed
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.clientId == 9 && @.type == 'UPDATE')]").exists());
+        resultadoStream
+            .andExpect(request().asyncStarted())
+            .andExpect(content().string(containsString("event:client-change")))
+            .andExpect(content().string(containsString("\"clientId\":9")));
+        resultadoLimite
+            .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Caso de testes : Verificar se o cursor não ultrapassa um seq que ainda não fez commit
+     * Arrange:
+     * - transação A grava o seq N e fica aberta; transação B grava o seq N+1 e faz commit
+     * - depois A faz commit; em seguida uma transação desfeita deixa uma lacuna definitiva
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se o feed retém as mudanças depois de uma transação aberta e pula lacunas de rollback")
+    public void testarTransacoesSobrepostas() throws Exception {
+        //arrange
+        long cursor = service.cursorAtual();
+        CountDownLatch gravou = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> transacaoA = executor.submit(() -> transactionTemplate.execute(status -> {
+                service.registrar(ClientChange.Type.UPDATE, 3L, 1L);
+                gravou.countDown();
+                aguardar(commit);
+                return null;
+            }));
+            assertTrue(gravou.await(5, TimeUnit.SECONDS));
+
+            //act
+            transactionTemplate.execute(status -> {
+                service.registrar(ClientChange.Type.UPDATE, 4L, 1L);
+                return null;
+            });
+            List<ClientChangeDTO> comAOaberta = service.findSince(cursor, 100);
+            commit.countDown();
+            transacaoA.get(5, TimeUnit.SECONDS);
+            List<ClientChangeDTO> aposCommit = service.findSince(cursor, 100);
+
+            transactionTemplate.execute(status -> {
+                service.registrar(ClientChange.Type.UPDATE, 5L, 1L);
+                status.setRollbackOnly();
+                return null;
+            });
+            transactionTemplate.execute(status -> {
+                service.registrar(ClientChange.Type.UPDATE, 6L, 1L);
+                return null;
+            });
+            long depoisDeB = aposCommit.get(aposCommit.size() - 1).getSeq();
+            List<ClientChangeDTO> lacunaRecente = service.findSince(depoisDeB, 100);
+            Thread.sleep(700);
+            List<ClientChangeDTO> lacunaAntiga = service.findSince(depoisDeB, 100);
+
+            //assign
+            assertTrue(comAOaberta.isEmpty());
+            assertEquals(2, aposCommit.size());
+            assertEquals(3L, aposCommit.get(0).getClientId());
+            assertEquals(4L, aposCommit.get(1).getClientId());
+            assertTrue(lacunaRecente.isEmpty());
+            assertEquals(1, lacunaAntiga.size());
+            assertEquals(6L, lacunaAntiga.get(0).getClientId());
+            assertEquals(lacunaAntiga.get(0).getSeq(), service.cursorAtual());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Caso de testes : Verificar se o stream SSE entrega as mudanças novas na ordem do seq
+     * Arrange:
+     * - assinante sem cursor (só mudanças novas)
+     * - um update depois da inscrição
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se get/clients/changes/stream entrega as mudanças feitas depois da inscrição")
+    public void testarStreamMudancasNovas() throws Exception {
+        //arrange
+        MvcResult stream = mockMVC.perform(get("/clients/changes/stream").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        //act
+        mockMVC.perform(patch("/clients/{id}", 10L).content("{\"children\":1}").contentType("application/merge-patch+json"))
+            .andExpect(status().isNoContent());
+
+        //assign
+        String conteudo = "";
+        for (int i = 0; i < 50 && !conteudo.contains("\"clientId\":10"); i++) {
+            Thread.sleep(100);
+            conteudo = stream.getResponse().getContentAsString();
+        }
+        assertTrue(conteudo.contains("\"clientId\":10"), conteudo);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.iftm.client.resources;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:duplicatedb", "client.dedup.chunk-size=2",
+        "client.dedup.parallelism=2" })
+@AutoConfigureMockMvc
+public class ClientDuplicateIntegrationTest {
+    @Autowired
+    private MockMvc mockMVC;
+
+    /**
+     * Caso de testes : Verificar se a detecção de duplicados sugere os pares por CPF e por nome parecido
+     * Arrange:
+     * - clientes 1, 2 e 9 da carga inicial com o mesmo CPF (3 pares)
+     * - um novo cliente "Jorge Amádo" com outro CPF, parecido com o cliente 12
+     * - lotes de 2 linhas, para a janela atravessar a fronteira entre lotes
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se post/clients/duplicates/scan grava as sugestões e get/clients/duplicates as pagina")
+    public void testarDeteccaoDeDuplicados() throws Exception {
+        //arrange
+        String json = "{\"name\":\"Jorge Amádo\",\"cpf\":\"52998224725\",\"income\":2500.0,\"children\":0}";
+        mockMVC.perform(post("/clients/").contentType(MediaType.APPLICATION_JSON).content(json))
+            .andExpect(status().isCreated());
+
+        //act
+        ResultActions resultado = mockMVC.perform(post("/clients/duplicates/scan"));
+        ResultActions sugestoes = mockMVC.perform(get("/clients/duplicates").param("linesPerPage", "10")
+                .accept(MediaType.APPLICATION_JSON));
+        ResultActions ordenacaoInvalida = mockMVC.perform(get("/clients/duplicates").param("orderBy", "name"));
+
+        //assign
+        resultado
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.suggestions").value(4));
+        sugestoes
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(4))
+            .andExpect(jsonPath("$.content[?(@.reason == 'SAME_CPF')]", hasSize(3)))
+            .andExpect(jsonPath("$.content[?(@.reason == 'SIMILAR_NAME' && @.clientId == 12)]").exists())
+            .andExpect(jsonPath("$.content[?(@.clientId == 1 && @.duplicateId == 9)]").exists());
+        ordenacaoInvalida
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,93 @@
+package com.iftm.client.resources;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:importdb", "client.import.batch-size=2",
+        "client.import.writers=2" })
+@AutoConfigureMockMvc
+public class ClientImportIntegrationTest {
+    @Autowired
+    private MockMvc mockMVC;
+
+    /**
+     * Caso de testes : Verificar se a importação CSV grava as linhas válidas e relata as rejeitadas
+     * Arrange:
+     * - arquivo com cabeçalho, 3 linhas válidas (CPFs formatados e nome com vírgula) e 1 CPF inválido
+     * - lotes de 2 linhas
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se post/clients/import importa o CSV, rejeita linhas inválidas e retoma pelo checkpoint")
+    public void testarImportacaoCsv() throws Exception {
+        //arrange
+        String csv = "name,cpf,income,birthDate,children\n"
+                + "\"Machado, de Assis\",529.982.247-25,3200.5,1839-06-21,0\n"
+                + "Cora Coralina,10619244881,1800,,2\n"
+                + "Lima Barreto,111.444.777-35,2100,1881-05-13T00:00:00Z,\n"
+                + "Raquel de Queiroz,111.444.777-35,4100,,1\n";
+
+        //act
+        ResultActions resultado = mockMVC.perform(post("/clients/import").contentType("text/csv").content(csv));
+        ResultActions retomada = mockMVC.perform(post("/clients/import").param("resumeFrom", "3")
+                .param("importId", "importacao-csv").contentType("text/csv").content(csv));
+        ResultActions busca = mockMVC.perform(get("/clients/cpf/").param("cpf", "52998224725")
+                .accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        resultado
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.importId").isNotEmpty())
+            .andExpect(jsonPath("$.imported").value(3))
+            .andExpect(jsonPath("$.rejected").value(1))
+            .andExpect(jsonPath("$.checkpoint").value(4))
+            .andExpect(jsonPath("$.rejections[0]", startsWith("line 2: Invalid CPF")));
+        retomada
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.importId").value("importacao-csv"))
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.checkpoint").value(4));
+        busca
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[?(@.name == 'Machado, de Assis')]").exists());
+    }
+
+    /**
+     * Caso de testes : Verificar se a importação NDJSON grava as linhas e registra o feed de mudanças
+     * Arrange:
+     * - arquivo com 2 objetos JSON válidos e 1 linha malformada
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se post/clients/import importa NDJSON e registra as inserções no feed")
+    public void testarImportacaoNdjson() throws Exception {
+        //arrange
+        String ndjson = "{\"name\":\"Ana Maria Gonçalves\",\"cpf\":\"52998224725\",\"income\":5000.0}\n"
+                + "{\"name\":\"Itamar Vieira\",\"cpf\":\"11144477735\",\"children\":2}\n"
+                + "{\"name\":\n";
+
+        //act
+        ResultActions resultado = mockMVC.perform(post("/clients/import").contentType("application/x-ndjson").content(ndjson));
+        ResultActions feed = mockMVC.perform(get("/clients/changes").param("since", "0").param("limit", "1000"));
+
+        //assign
+        resultado
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.rejected").value(1));
+        feed
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.type == 'INSERT')]", hasSize(greaterThanOrEqualTo(2))));
+    }
+}
@@ -1,19 +1,28 @@
 package com.iftm.client.resources;
 
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+import com.iftm.client.repositories.ClientReadRepository;
 import com.iftm.client.services.ClientService;
 
 //necessário para utilizar o MockMVC
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -24,22 +33,28 @@ public class ClientResourceIntegrationTest {
     @Autowired
     private ClientService service;
 
+    @Autowired
+    private ClientReadRepository readRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     /**
      * Caso de testes : Verificar se o endpoint get/clients/ retorna todos os clientes existentes
      * Arrange:
      * - base de dado : 12 clientes
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Conceição Evaristo', '10619244881', 1500.0, TIMESTAMP WITH TIME ZONE '2020-07-13T20:50:00Z', 2);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Lázaro Ramos', '10619244881', 2500.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 2);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Clarice Lispector', '10919444522', 3800.0, TIMESTAMP WITH TIME ZONE '1960-04-13T07:50:00Z', 2);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Carolina Maria de Jesus', '10419244771', 7500.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 0);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Gilberto Gil', '10419344882', 2500.0, TIMESTAMP WITH TIME ZONE '1949-05-05T07:00:00Z', 4);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Djamila Ribeiro', '10619244884', 4500.0, TIMESTAMP WITH TIME ZONE '1975-11-10T07:00:00Z', 1);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Jose Saramago', '10239254871', 5000.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 0);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Toni Morrison', '10219344681', 10000.0, TIMESTAMP WITH TIME ZONE '1940-02-23T07:00:00Z', 0);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Yuval Noah Harari', '10619244881', 1500.0, TIMESTAMP WITH TIME ZONE '1956-09-23T07:00:00Z', 0);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Chimamanda Adichie', '10114274861', 1500.0, TIMESTAMP WITH TIME ZONE '1956-09-23T07:00:00Z', 0);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Silvio Almeida', '10164334861', 4500.0, TIMESTAMP WITH TIME ZONE '1970-09-23T07:00:00Z', 2);
-INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Jorge Amado', '10204374161', 2500.0, TIMESTAMP WITH TIME ZONE '1918-09-23T07:00:00Z', 0);     * - Uma PageRequest default
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Conceição Evaristo', '10619244836', 1500.0, TIMESTAMP WITH TIME ZONE '2020-07-13T20:50:00Z', 2);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Lázaro Ramos', '10619244836', 2500.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 2);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Clarice Lispector', '10919444580', 3800.0, TIMESTAMP WITH TIME ZONE '1960-04-13T07:50:00Z', 2);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Carolina Maria de Jesus', '10419244700', 7500.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 0);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Gilberto Gil', '10419344837', 2500.0, TIMESTAMP WITH TIME ZONE '1949-05-05T07:00:00Z', 4);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Djamila Ribeiro', '10619244917', 4500.0, TIMESTAMP WITH TIME ZONE '1975-11-10T07:00:00Z', 1);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Jose Saramago', '10239254864', 5000.0, TIMESTAMP WITH TIME ZONE '1996-12-23T07:00:00Z', 0);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Toni Morrison', '10219344612', 10000.0, TIMESTAMP WITH TIME ZONE '1940-02-23T07:00:00Z', 0);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Yuval Noah Harari', '10619244836', 1500.0, TIMESTAMP WITH TIME ZONE '1956-09-23T07:00:00Z', 0);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Chimamanda Adichie', '10114274860', 1500.0, TIMESTAMP WITH TIME ZONE '1956-09-23T07:00:00Z', 0);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Silvio Almeida', '10164334840', 4500.0, TIMESTAMP WITH TIME ZONE '1970-09-23T07:00:00Z', 2);
+INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Jorge Amado', '10204374138', 2500.0, TIMESTAMP WITH TIME ZONE '1918-09-23T07:00:00Z', 0);     * - Uma PageRequest default
      * @throws Exception 
      */
     @Test
@@ -68,4 +83,426 @@ INSERT INTO tb_client (name, cpf, income, birth_date, children) VALUES('Jorge Am
             .andExpect(jsonPath("$.numberOfElements").value(quantidadeLinhasPagina))
             .andExpect(jsonPath("$.content[*].id", containsInAnyOrder(4,10,3,1,6,5,12,7,2,11,8,9)));
     }
+
+    /**
+     * Caso de testes : Verificar se o endpoint get/clients/id/{id} rejeita ids fora dos limites conhecidos
+     * Arrange:
+     * - base de dado : 12 clientes (ids 1 a 12)
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/id/{id} retorna 404 para id fora dos limites")
+    public void testarEndPointBuscarIdForaDosLimitesRetornaNaoEncontrado() throws Exception{
+        //act
+        ResultActions resultadoAcima = mockMVC.perform(get("/clients/id/{id}", 999999L).accept(MediaType.APPLICATION_JSON));
+        ResultActions resultadoNegativo = mockMVC.perform(get("/clients/id/{id}", -1L).accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        resultadoAcima
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.error").value("Resource not found"))
+            .andExpect(jsonPath("$.message").value("Invalid Id : 999999"));
+        resultadoNegativo
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.message").value("Invalid Id : -1"));
+    }
+
+    /**
+     * Caso de testes : Verificar se o endpoint put/clients/{id} respeita o If-Match
+     * Arrange:
+     * - base de dado : cliente 3 na versão 0
+     * - a transação do teste é desfeita ao final
+     * @throws Exception 
+     */
+    @Test
+    @Transactional
+    @DisplayName("Verificar se o endpoint put/clients/{id} rejeita If-Match com versão desatualizada")
+    public void testarEndPointUpdateComIfMatch() throws Exception{
+        //arrange
+        String clienteJson = "{\"name\":\"Clarice Lispector\",\"cpf\":\"529.982.247-25\",\"income\":3800.0,"
+                + "\"birthDate\":\"1960-04-13T07:50:00Z\",\"children\":2}";
+
+        //act
+        ResultActions resultadoAtual = mockMVC.perform(put("/clients/{id}", 3L).header("If-Match", "\"0\"")
+                .content(clienteJson).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+        ResultActions resultadoDesatualizado = mockMVC.perform(put("/clients/{id}", 3L).header("If-Match", "\"0\"")
+                .content(clienteJson).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        resultadoAtual
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""))
+            .andExpect(jsonPath("$.cpf").value("52998224725"))
+            .andExpect(jsonPath("$.version").value(1));
+        resultadoDesatualizado
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.error").value("Version conflict"));
+    }
+
+    /**
+     * Caso de testes : Verificar se o endpoint put/clients/{id} aceita de volta a representação devolvida pelo get
+     * Arrange:
+     * - base de dado : cliente 4 (Carolina Maria de Jesus) na versão 0
+     * - a transação do teste é desfeita ao final
+     * @throws Exception 
+     */
+    @Test
+    @Transactional
+    @DisplayName("Verificar se o endpoint put/clients/{id} aceita o corpo do get de um cliente da carga inicial")
+    public void testarEndPointUpdateComRepresentacaoDoGet() throws Exception{
+        //arrange
+        String clienteJson = mockMVC.perform(get("/clients/id/{id}", 4L).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+
+        //act
+        ResultActions resultado = mockMVC.perform(put("/clients/{id}", 4L)
+                .content(clienteJson).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        resultado
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cpf").value("10419244700"))
+            .andExpect(jsonPath("$.version").value(0));
+    }
+
+    /**
+     * Caso de testes : Verificar se um CPF gravado antes da validação dos dígitos verificadores pode ser mantido
+     * Arrange:
+     * - base de dado : cliente 8 com o CPF alterado direto no banco para um valor com dígitos inválidos
+     * - a transação do teste é desfeita ao final
+     * @throws Exception 
+     */
+    @Test
+    @Transactional
+    @DisplayName("Verificar se put e patch mantêm um CPF antigo inválido, mas recusam trocá-lo por outro inválido")
+    public void testarEndPointUpdateMantemCpfAntigo() throws Exception{
+        //arrange
+        jdbcTemplate.update("UPDATE tb_client SET cpf = '10219344681' WHERE id = 8");
+        String clienteJson = "{\"name\":\"Toni Morrison\",\"cpf\":\"102.193.446-81\",\"income\":12000.0,"
+                + "\"birthDate\":\"1940-02-23T07:00:00Z\",\"children\":0}";
+
+        //act
+        ResultActions resultadoPut = mockMVC.perform(put("/clients/{id}", 8L)
+                .content(clienteJson).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+        ResultActions resultadoPatch = mockMVC.perform(patch("/clients/{id}", 8L)
+                .content("{\"cpf\":\"10219344681\",\"children\":1}").contentType("application/merge-patch+json"));
+        ResultActions resultadoOutroCpf = mockMVC.perform(patch("/clients/{id}", 8L)
+                .content("{\"cpf\":\"10219344682\"}").contentType("application/merge-patch+json"));
+
+        //assign
+        resultadoPut
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cpf").value("10219344681"))
+            .andExpect(jsonPath("$.income").value(12000.0));
+        resultadoPatch.andExpect(status().isNoContent());
+        resultadoOutroCpf
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.message").value("Invalid CPF : 10219344682"));
+    }
+
+    /**
+     * Caso de testes : Verificar se o endpoint patch/clients/{id} altera apenas os campos enviados
+     * Arrange:
+     * - base de dado : cliente 5 (Gilberto Gil) na versão 0
+     * - a transação do teste é desfeita ao final
+     * @throws Exception 
+     */
+    @Test
+    @Transactional
+    @DisplayName("Verificar se o endpoint patch/clients/{id} altera apenas os campos enviados")
+    public void testarEndPointPatchAlteraCamposEnviados() throws Exception{
+        //act
+        ResultActions resultadoPatch = mockMVC.perform(patch("/clients/{id}", 5L).header("If-Match", "\"0\"")
+                .content("{\"income\":3000.0,\"children\":null}").contentType("application/merge-patch+json"));
+        ResultActions resultadoBusca = mockMVC.perform(get("/clients/id/{id}", 5L).accept(MediaType.APPLICATION_JSON));
+        ResultActions resultadoDesatualizado = mockMVC.perform(patch("/clients/{id}", 5L).header("If-Match", "\"0\"")
+                .content("{\"name\":\"Gil\"}").contentType("application/merge-patch+json"));
+
+        //assign
+        resultadoPatch
+            .andExpect(status().isNoContent())
+            .andExpect(header().string("ETag", "\"1\""));
+        resultadoBusca
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Gilberto Gil"))
+            .andExpect(jsonPath("$.income").value(3000.0))
+            .andExpect(jsonPath("$.children").isEmpty())
+            .andExpect(jsonPath("$.version").value(1));
+        resultadoDesatualizado
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    /**
+     * Caso de testes : Verificar se o endpoint patch/clients/{id} com corpo vazio confere o If-Match
+     * Arrange:
+     * - base de dado : cliente 6 na versão 0
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se o endpoint patch/clients/{id} com corpo vazio rejeita If-Match errado e devolve a versão real")
+    public void testarEndPointPatchVazioConfereIfMatch() throws Exception{
+        //act
+        ResultActions resultadoErrado = mockMVC.perform(patch("/clients/{id}", 6L).header("If-Match", "\"7\"")
+                .content("{}").contentType("application/merge-patch+json"));
+        ResultActions resultadoSemIfMatch = mockMVC.perform(patch("/clients/{id}", 6L)
+                .content("{}").contentType("application/merge-patch+json"));
+        ResultActions resultadoCorreto = mockMVC.perform(patch("/clients/{id}", 6L).header("If-Match", "\"0\"")
+                .content("{}").contentType("application/merge-patch+json"));
+
+        //assign
+        resultadoErrado
+            .andExpect(status().isPreconditionFailed());
+        resultadoSemIfMatch
+            .andExpect(status().isNoContent())
+            .andExpect(header().string("ETag", "\"0\""));
+        resultadoCorreto
+            .andExpect(status().isNoContent())
+            .andExpect(header().string("ETag", "\"0\""));
+    }
+
+    /**
+     * Caso de testes : Verificar se os endpoints de leitura respondem 304 quando o ETag não mudou
+     * Arrange:
+     * - base de dado : cliente 8 na versão 0
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se get/clients/id/{id} e get/clients/ respondem 304 para If-None-Match atual")
+    public void testarEndPointsLeituraCondicional() throws Exception{
+        //act
+        ResultActions resultadoPrimeiraLista = mockMVC.perform(get("/clients/").accept(MediaType.APPLICATION_JSON));
+        String etagLista = resultadoPrimeiraLista.andReturn().getResponse().getHeader("ETag");
+        ResultActions resultadoLista = mockMVC.perform(get("/clients/").header("If-None-Match", etagLista)
+                .accept(MediaType.APPLICATION_JSON));
+        ResultActions resultadoId = mockMVC.perform(get("/clients/id/{id}", 8L).header("If-None-Match", "\"0\"")
+                .accept(MediaType.APPLICATION_JSON));
+        ResultActions resultadoIdDesatualizado = mockMVC.perform(get("/clients/id/{id}", 8L)
+                .header("If-None-Match", "\"7\"").accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        resultadoPrimeiraLista
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"));
+        resultadoLista
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        resultadoId
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"0\""));
+        resultadoIdDesatualizado
+            .andExpect(status().isOk())
+            .andExpect(header().stringValues("ETag", "\"0\""))
+            .andExpect(jsonPath("$.name").value("Toni Morrison"));
+    }
+
+    /**
+     * Caso de testes : Verificar se o ETag das listagens segue o formato escolhido pelo conversor
+     * Arrange:
+     * - base de dado : 12 clientes
+     * - Accept com CBOR recusado (q=0) e Accept só com CBOR
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se o ETag de get/clients/ usa o formato negociado e não o texto do Accept")
+    public void testarEndPointListarEtagPorFormatoNegociado() throws Exception{
+        //act
+        ResultActions resultadoJson = mockMVC.perform(get("/clients/")
+                .header("Accept", "application/json, application/cbor;q=0"));
+        ResultActions resultadoCbor = mockMVC.perform(get("/clients/").accept(MediaType.APPLICATION_CBOR));
+        String etagJson = resultadoJson.andReturn().getResponse().getHeader("ETag");
+        String etagCbor = resultadoCbor.andReturn().getResponse().getHeader("ETag");
+        ResultActions resultadoCborCondicional = mockMVC.perform(get("/clients/").header("If-None-Match", etagCbor)
+                .accept(MediaType.APPLICATION_CBOR));
+        ResultActions resultadoJsonComEtagCbor = mockMVC.perform(get("/clients/").header("If-None-Match", etagCbor)
+                .header("Accept", "application/cbor;q=0.5, application/json"));
+
+        //assign
+        resultadoJson
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(header().string("ETag", not(containsString("-"))));
+        resultadoCbor
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andExpect(header().stringValues("ETag", contains(endsWith("-cbor\""))));
+        resultadoCborCondicional
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", etagCbor));
+        resultadoJsonComEtagCbor
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(header().stringValues("ETag", etagJson));
+    }
+
+    /**
+     * Caso de testes : Verificar se o endpoint get/clients/ pagina e ordena pelas colunas pedidas
+     * Arrange:
+     * - base de dado : 12 clientes
+     * - página 0 com 3 linhas ordenada por income DESC
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/ pagina e ordena por income")
+    public void testarEndPointListarPaginadoOrdenadoPorIncome() throws Exception{
+        //act
+        ResultActions resultados = mockMVC.perform(get("/clients/").param("linesPerPage", "3")
+                .param("orderBy", "income").param("direction", "DESC").accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        resultados
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].name").value("Toni Morrison"))
+            .andExpect(jsonPath("$.content[0].income").value(10000.0))
+            .andExpect(jsonPath("$.content[0].birthDate").value("1940-02-23T07:00:00Z"))
+            .andExpect(jsonPath("$.content[1].name").value("Carolina Maria de Jesus"))
+            .andExpect(jsonPath("$.numberOfElements").value(3))
+            .andExpect(jsonPath("$.totalElements").value(12))
+            .andExpect(jsonPath("$.totalPages").value(4));
+    }
+
+    /**
+     * Caso de testes : Verificar se a listagem é comprimida e servida do cache na segunda chamada
+     * Arrange:
+     * - base de dado : 12 clientes (resposta JSON acima de 1KB)
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/ responde comprimido em gzip")
+    public void testarEndPointListarComprimido() throws Exception{
+        //act
+        byte[] original = mockMVC.perform(get("/clients/").param("orderBy", "id").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        ResultActions primeira = mockMVC.perform(get("/clients/").param("orderBy", "id")
+                .header("Accept-Encoding", "gzip").accept(MediaType.APPLICATION_JSON));
+        ResultActions segunda = mockMVC.perform(get("/clients/").param("orderBy", "id")
+                .header("Accept-Encoding", "gzip, deflate").accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        primeira
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andExpect(header().exists("ETag"));
+        segunda
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"));
+
+        byte[] comprimido = segunda.andReturn().getResponse().getContentAsByteArray();
+        byte[] descomprimido = new GZIPInputStream(new ByteArrayInputStream(comprimido)).readAllBytes();
+        assertTrue(comprimido.length < original.length);
+        assertArrayEquals(original, descomprimido);
+    }
+
+    /**
+     * Caso de testes : Verificar se consultas acima dos limites ou com ordenação não indexada são rejeitadas
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/ rejeita página grande demais e ordenação não permitida")
+    public void testarEndPointListarRejeitaConsultasAbusivas() throws Exception{
+        //act
+        ResultActions paginaGrande = mockMVC.perform(get("/clients/").param("linesPerPage", "10000000")
+                .accept(MediaType.APPLICATION_JSON));
+        ResultActions ordenacaoNaoIndexada = mockMVC.perform(get("/clients/income/").param("orderBy", "children")
+                .accept(MediaType.APPLICATION_JSON));
+        ResultActions direcaoInvalida = mockMVC.perform(get("/clients/").param("direction", "SIDEWAYS")
+                .accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        paginaGrande
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Query rejected"));
+        ordenacaoNaoIndexada
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Query rejected"));
+        direcaoInvalida
+            .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Caso de testes : Verificar se o teto de linhas e o timeout valem só para as leituras da API
+     * Arrange:
+     * - client.query.max-page-size = 1000 e client.query.timeout-ms = 5000
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se max-rows e timeout ficam no template do ClientReadRepository e não no JdbcTemplate padrão")
+    public void testarLimitesSoNasLeiturasDaApi() throws Exception{
+        //act
+        NamedParameterJdbcTemplate leituras = (NamedParameterJdbcTemplate) ReflectionTestUtils.getField(readRepository,
+                "jdbcTemplate");
+
+        //assign
+        assertEquals(1000, leituras.getJdbcTemplate().getMaxRows());
+        assertEquals(5, leituras.getJdbcTemplate().getQueryTimeout());
+        assertEquals(-1, jdbcTemplate.getMaxRows());
+        assertEquals(-1, jdbcTemplate.getQueryTimeout());
+    }
+
+    /**
+     * Caso de testes : Verificar se o endpoint get/clients/search combina os filtros em uma única consulta
+     * Arrange:
+     * - base de dado : 12 clientes
+     * - salário entre 2000 e 5000, cpf começando com 106 e ao menos 1 filho: Lázaro Ramos (2) e Djamila Ribeiro (6)
+     * - nome começando com J e nascido até 1950: Jorge Amado (12)
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/search combina filtros, ordena e rejeita faixas ou ordenações inválidas")
+    public void testarEndPointBuscaCombinada() throws Exception{
+        //act
+        ResultActions resultados = mockMVC.perform(get("/clients/search")
+                .param("incomeMin", "2000").param("incomeMax", "5000").param("cpf", "106").param("childrenMin", "1")
+                .param("orderBy", "income").param("direction", "DESC").accept(MediaType.APPLICATION_JSON));
+        ResultActions porNome = mockMVC.perform(get("/clients/search")
+                .param("name", "J").param("birthDateTo", "1950-01-01T00:00:00Z").accept(MediaType.APPLICATION_JSON));
+        ResultActions faixaInvalida = mockMVC.perform(get("/clients/search")
+                .param("incomeMin", "5000").param("incomeMax", "2000").accept(MediaType.APPLICATION_JSON));
+        ResultActions ordenacaoInvalida = mockMVC.perform(get("/clients/search")
+                .param("orderBy", "children").accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        resultados
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(2))
+            .andExpect(jsonPath("$.content[*].id", contains(6, 2)));
+        porNome
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].name").value("Jorge Amado"));
+        faixaInvalida.andExpect(status().isUnprocessableEntity());
+        ordenacaoInvalida.andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Caso de testes : Verificar se fields= restringe os campos devolvidos nas listagens e no get por id
+     * Arrange:
+     * - base de dado : 12 clientes; cliente 3 (Clarice Lispector, versão 0)
+     * @throws Exception 
+     */
+    @Test
+    @DisplayName("Verificar se o parâmetro fields devolve só os campos pedidos e rejeita campos inexistentes")
+    public void testarEndPointCamposEsparsos() throws Exception{
+        //act
+        ResultActions listagem = mockMVC.perform(get("/clients/")
+                .param("fields", "id,name").param("orderBy", "cpf").accept(MediaType.APPLICATION_JSON));
+        ResultActions porId = mockMVC.perform(get("/clients/id/{id}", 3L)
+                .param("fields", "cpf").accept(MediaType.APPLICATION_JSON));
+        ResultActions campoInvalido = mockMVC.perform(get("/clients/")
+                .param("fields", "id,senha").accept(MediaType.APPLICATION_JSON));
+
+        //assign
+        listagem
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(12))
+            .andExpect(jsonPath("$.content[0].id").exists())
+            .andExpect(jsonPath("$.content[0].name").exists())
+            .andExpect(jsonPath("$.content[0].cpf").doesNotExist())
+            .andExpect(jsonPath("$.content[0].income").doesNotExist())
+            .andExpect(jsonPath("$.content[0].version").doesNotExist());
+        porId
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"0\""))
+            .andExpect(content().json("{\"cpf\":\"10919444580\"}", true));
+        campoInvalido.andExpect(status().isUnprocessableEntity());
+    }
 }
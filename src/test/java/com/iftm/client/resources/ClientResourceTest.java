@@ -3,6 +3,7 @@ package com.iftm.client.resources;
 //necessário para utilizar o MockMVC
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -21,8 +22,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFields;
 import com.iftm.client.entities.Client;
 import com.iftm.client.services.ClientService;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
@@ -46,11 +50,11 @@ public class ClientResourceTest {
          * Arrange:
          * - camada service simulada com mockito
          * - base de dado : 3 clientes
-         * new Client(7l, "Jose Saramago", "10239254871", 5000.0,
+         * new Client(7l, "Jose Saramago", "10239254864", 5000.0,
          * Instant.parse("1996-12-23T07:00:00Z"), 0);
-         * new Client(4l, "Carolina Maria de Jesus", "10419244771", 7500.0,
+         * new Client(4l, "Carolina Maria de Jesus", "10419244700", 7500.0,
          * Instant.parse("1996-12-23T07:00:00Z"), 0);
-         * new Client(8l, "Toni Morrison", "10219344681", 10000.0,
+         * new Client(8l, "Toni Morrison", "10219344612", 10000.0,
          * Instant.parse("1940-02-23T07:00:00Z"), 0);
          * - Uma PageRequest default
          * 
@@ -64,16 +68,16 @@ public class ClientResourceTest {
                 // configurando o Mock ClientService
                 List<ClientDTO> listaClientes;
                 listaClientes = new ArrayList<ClientDTO>();
-                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254871", 5000.0,
+                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0)));
-                listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", "10419244771", 7500.0,
+                listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", "10419244700", 7500.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0)));
-                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344681", 10000.0,
+                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344612", 10000.0,
                                 Instant.parse("1940-02-23T07:00:00Z"), 0)));
 
                 Page<ClientDTO> page = new PageImpl<>(listaClientes);
 
-                Mockito.when(service.findAllPaged(Mockito.any())).thenReturn(page);
+                Mockito.when(service.findAllPaged(Mockito.any(), Mockito.any())).thenReturn(page);
                 // fim configuração mockito
 
                 // act
@@ -95,17 +99,17 @@ public class ClientResourceTest {
                                 // novos andExpect
                                 // Milena
                                 .andExpect(jsonPath("$.content[?(@.name == '%s')]", "Jose Saramago").exists())
-                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10239254871").exists())
+                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10239254864").exists())
                                 .andExpect(jsonPath("$.content[?(@.income == '%s')]", 5000.0).exists())
 
                                 // Diego
-                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10219344681").exists())
+                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10219344612").exists())
                                 .andExpect(jsonPath("$.content[?(@.income == '%s')]", 10000.0).exists())
                                 .andExpect(jsonPath("$.content[?(@.children == '%s')]", 0).exists())
 
                                 // Barbara
                                 .andExpect(jsonPath("$.content[?(@.name == '%s')]", "Carolina Maria de Jesus").exists())
-                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10419244771").exists())
+                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10419244700").exists())
                                 .andExpect(jsonPath("$.content[?(@.income == '%s')]", 7500.0).exists());
         }
 
@@ -145,9 +149,9 @@ public class ClientResourceTest {
         public void testarEndPointUpdadeIdValido() throws Exception {
 
                 // arrange
-                ClientDTO updateCliente1 = new ClientDTO(7L, "Jose Antonio Saramago", "10239254871", 5000.0,
+                ClientDTO updateCliente1 = new ClientDTO(7L, "Jose Antonio Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 2);
-                ClientDTO updateCliente2 = new ClientDTO(4L, "Carolina Maria de Jesus de Paula", "10419244771", 7500.0,
+                ClientDTO updateCliente2 = new ClientDTO(4L, "Carolina Maria de Jesus de Paula", "10419244700", 7500.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 1);
 
                 Mockito.when(service.update(Mockito.anyLong(), Mockito.any(ClientDTO.class)))
@@ -174,7 +178,7 @@ public class ClientResourceTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.id").value(7L))
                                 .andExpect(jsonPath("$.name").value("Jose Antonio Saramago"))
-                                .andExpect(jsonPath("$.cpf").value("10239254871"))
+                                .andExpect(jsonPath("$.cpf").value("10239254864"))
                                 .andExpect(jsonPath("$.income").value(5000.0))
                                 .andExpect(jsonPath("$.children").value(2));
 
@@ -182,7 +186,7 @@ public class ClientResourceTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.id").value(4L))
                                 .andExpect(jsonPath("$.name").value("Carolina Maria de Jesus de Paula"))
-                                .andExpect(jsonPath("$.cpf").value("10419244771"))
+                                .andExpect(jsonPath("$.cpf").value("10419244700"))
                                 .andExpect(jsonPath("$.income").value(7500.0))
                                 .andExpect(jsonPath("$.children").value(1));
         }
@@ -192,7 +196,7 @@ public class ClientResourceTest {
         public void testarEndPointUpdateIdInvalido() throws Exception {
 
                 // arrange
-                ClientDTO updateCliente1 = new ClientDTO(7L, "Jose Antonio Saramago", "10239254871", 5000.0,
+                ClientDTO updateCliente1 = new ClientDTO(7L, "Jose Antonio Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 2);
 
                 Mockito.when(service.update(Mockito.anyLong(), Mockito.any(ClientDTO.class)))
@@ -225,11 +229,11 @@ public class ClientResourceTest {
                 // configurando o mock ClientService
                 List<ClientDTO> listaClientes;
                 listaClientes = new ArrayList<ClientDTO>();
-                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254871", 5000.0,
+                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0)));
-                listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", "10419244771", 7500.0,
+                listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", "10419244700", 7500.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0)));
-                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344681", 10000.0,
+                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344612", 10000.0,
                                 Instant.parse("1940-02-23T07:00:00Z"), 0)));
                 listaClientes.add(new ClientDTO(new Client(9L, "Sebastião Siveira", "17256987123", 5000.0,
                                 Instant.parse("1952-08-31T15:30:00Z"), 1)));
@@ -237,7 +241,7 @@ public class ClientResourceTest {
                 Page<ClientDTO> page = new PageImpl<>(listaClientes);
 
                 Mockito.when(
-                                service.findByIncomeGreaterThan(Mockito.any(), Mockito.anyDouble())).thenReturn(page);
+                                service.findByIncomeGreaterThan(Mockito.any(), Mockito.anyDouble(), Mockito.any())).thenReturn(page);
                 // fim configuração mockito
 
                 // Act
@@ -249,12 +253,12 @@ public class ClientResourceTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.content[?(@.id == '%s')]", 4L).exists())
                                 .andExpect(jsonPath("$.content[?(@.name == '%s')]", "Carolina Maria de Jesus").exists())
-                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10419244771").exists())
+                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10419244700").exists())
                                 .andExpect(jsonPath("$.content[?(@.income == '%s')]", 7500.0).exists())
                                 .andExpect(jsonPath("$.content[?(@.children == '%s')]", 0).exists())
                                 .andExpect(jsonPath("$.content[?(@.id == '%s')]", 8L).exists())
                                 .andExpect(jsonPath("$.content[?(@.name == '%s')]", "Toni Morrison").exists())
-                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10219344681").exists())
+                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10219344612").exists())
                                 .andExpect(jsonPath("$.content[?(@.income == '%s')]", 10000.0).exists())
                                 .andExpect(jsonPath("$.content[?(@.children == '%s')]", 0).exists());
         }
@@ -269,11 +273,11 @@ public class ClientResourceTest {
                 // configurando o mock ClientService
                 List<ClientDTO> listaClientes;
                 listaClientes = new ArrayList<ClientDTO>();
-                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254871", 5000.0,
+                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0)));
-                listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", "10419244771", 7500.0,
+                listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", "10419244700", 7500.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0)));
-                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344681", 10000.0,
+                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344612", 10000.0,
                                 Instant.parse("1940-02-23T07:00:00Z"), 0)));
                 listaClientes.add(new ClientDTO(new Client(9L, "Sebastião Siveira", "17256987123", 5000.0,
                                 Instant.parse("1952-08-31T15:30:00Z"), 1)));
@@ -281,7 +285,7 @@ public class ClientResourceTest {
                 Page<ClientDTO> page = new PageImpl<>(listaClientes);
 
                 Mockito.when(
-                                service.findByCpfLike(Mockito.any(), Mockito.anyString())).thenReturn(page);
+                                service.findByCpfLike(Mockito.any(), Mockito.anyString(), Mockito.any())).thenReturn(page);
                 // fim configuração mockito
 
                 // Act
@@ -293,12 +297,12 @@ public class ClientResourceTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.content[?(@.id == '%s')]", 7L).exists())
                                 .andExpect(jsonPath("$.content[?(@.name == '%s')]", "Jose Saramago").exists())
-                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10239254871").exists())
+                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10239254864").exists())
                                 .andExpect(jsonPath("$.content[?(@.income == '%s')]", 5000.0).exists())
                                 .andExpect(jsonPath("$.content[?(@.children == '%s')]", 0).exists())
                                 .andExpect(jsonPath("$.content[?(@.id == '%s')]", 4L).exists())
                                 .andExpect(jsonPath("$.content[?(@.name == '%s')]", "Carolina Maria de Jesus").exists())
-                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10419244771").exists())
+                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10419244700").exists())
                                 .andExpect(jsonPath("$.content[?(@.income == '%s')]", 7500.0).exists())
                                 .andExpect(jsonPath("$.content[?(@.children == '%s')]", 0).exists());
         }
@@ -308,14 +312,14 @@ public class ClientResourceTest {
         public void testarEndPointInsertRetornaCorreto() throws Exception {
 
                 // arrange
-                ClientDTO newCliente1 = new ClientDTO(7L, "Jose Saramago", "10239254871", 5000.0,
+                ClientDTO newCliente1 = new ClientDTO(7L, "Jose Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0);
-                ClientDTO newCliente2 = new ClientDTO(4L, "Carolina Maria de Jesus", "10419244771", 7500.0,
+                ClientDTO newCliente2 = new ClientDTO(4L, "Carolina Maria de Jesus", "10419244700", 7500.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 1);
 
-                ClientDTO savedCliente1 = new ClientDTO(7L, "Jose Saramago", "10239254871", 5000.0,
+                ClientDTO savedCliente1 = new ClientDTO(7L, "Jose Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0);
-                ClientDTO savedCliente2 = new ClientDTO(4L, "Carolina Maria de Jesus", "10419244771", 7500.0,
+                ClientDTO savedCliente2 = new ClientDTO(4L, "Carolina Maria de Jesus", "10419244700", 7500.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 1);
 
                 Mockito.when(service.insert(Mockito.any(ClientDTO.class))).thenReturn(savedCliente1)
@@ -342,7 +346,7 @@ public class ClientResourceTest {
                                 .andExpect(status().isCreated())
                                 .andExpect(jsonPath("$.id").value(7L))
                                 .andExpect(jsonPath("$.name").value("Jose Saramago"))
-                                .andExpect(jsonPath("$.cpf").value("10239254871"))
+                                .andExpect(jsonPath("$.cpf").value("10239254864"))
                                 .andExpect(jsonPath("$.income").value(5000.0))
                                 .andExpect(jsonPath("$.children").value(0));
 
@@ -350,12 +354,54 @@ public class ClientResourceTest {
                                 .andExpect(status().isCreated())
                                 .andExpect(jsonPath("$.id").value(4L))
                                 .andExpect(jsonPath("$.name").value("Carolina Maria de Jesus"))
-                                .andExpect(jsonPath("$.cpf").value("10419244771"))
+                                .andExpect(jsonPath("$.cpf").value("10419244700"))
                                 .andExpect(jsonPath("$.income").value(7500.0))
                                 .andExpect(jsonPath("$.children").value(1));
 
         }
 
+        /**
+         * Caso de testes : Verificar se a repetição de um POST com a mesma Idempotency-Key
+         * devolve o cliente da primeira sem inserir de novo
+         * Arrange:
+         * - camada service simulada com mockito, que devolveria ids diferentes a cada insert
+         * - a mesma chave enviada duas vezes e uma chave nova
+         * @throws Exception
+         */
+        @Test
+        @DisplayName("Verificar se post/clients/ com Idempotency-Key repetida não insere de novo")
+        public void testarEndPointInsertIdempotente() throws Exception {
+
+                // arrange
+                ClientDTO novo = new ClientDTO(null, "Conceição Evaristo", "52998224725", 1500.0, null, 2);
+                Mockito.when(service.insert(Mockito.any(ClientDTO.class)))
+                                .thenReturn(new ClientDTO(20L, "Conceição Evaristo", "52998224725", 1500.0, null, 2))
+                                .thenReturn(new ClientDTO(21L, "Conceição Evaristo", "52998224725", 1500.0, null, 2));
+                String json = objectMapper.writeValueAsString(novo);
+
+                // act
+                ResultActions primeira = mockMVC.perform(post("/clients/").content(json)
+                                .contentType(MediaType.APPLICATION_JSON).header("Idempotency-Key", "pedido-20"));
+                ResultActions repetida = mockMVC.perform(post("/clients/").content(json)
+                                .contentType(MediaType.APPLICATION_JSON).header("Idempotency-Key", "pedido-20"));
+                ResultActions outraChave = mockMVC.perform(post("/clients/").content(json)
+                                .contentType(MediaType.APPLICATION_JSON).header("Idempotency-Key", "pedido-21"));
+
+                // assign
+                primeira
+                                .andExpect(status().isCreated())
+                                .andExpect(header().string("Location", "http://localhost/clients/20"))
+                                .andExpect(header().string("Idempotent-Replayed", "false"));
+                repetida
+                                .andExpect(status().isCreated())
+                                .andExpect(header().string("Location", "http://localhost/clients/20"))
+                                .andExpect(header().string("Idempotent-Replayed", "true"))
+                                .andExpect(jsonPath("$.id").value(20L));
+                outraChave
+                                .andExpect(jsonPath("$.id").value(21L));
+                Mockito.verify(service, Mockito.times(2)).insert(Mockito.any(ClientDTO.class));
+        }
+
         // Barbara
         @Test
         @DisplayName("Verificar se o endpoint /id/{id} retorna dado em caso de id existente")
@@ -365,11 +411,11 @@ public class ClientResourceTest {
                 int idCliente = 1;
 
                 // configurando o mock ClientService
-                ClientDTO cliente = new ClientDTO(new Client(1L, "Jose Saramago", "10239254871", 5000.0,
+                ClientDTO cliente = new ClientDTO(new Client(1L, "Jose Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0));
 
                 Mockito.when(
-                                service.findById(1L)).thenReturn(cliente);
+                                service.findById(1L, ClientFields.TODOS)).thenReturn(cliente);
                 // fim configuração mockito
 
                 // Act
@@ -382,7 +428,7 @@ public class ClientResourceTest {
                                 .andExpect(jsonPath("$.id", 1L).exists())
                                 .andExpect(jsonPath("$.id").value(idCliente))
                                 .andExpect(jsonPath("$.name", "Jose Saramago").exists())
-                                .andExpect(jsonPath("$.cpf", "10239254871").exists())
+                                .andExpect(jsonPath("$.cpf", "10239254864").exists())
                                 .andExpect(jsonPath("$.income", 5000.0).exists())
                                 .andExpect(jsonPath("$.children", 0).exists());
         }
@@ -394,7 +440,7 @@ public class ClientResourceTest {
                 // Arrange
                 // configurando o mock ClientService
                 Mockito.when(
-                                service.findById(100L)).thenThrow(new ResourceNotFoundException("Resource not found"));
+                                service.findById(100L, ClientFields.TODOS)).thenThrow(new ResourceNotFoundException("Resource not found"));
                 // fim configuração mockito
 
                 // Act
@@ -417,11 +463,11 @@ public class ClientResourceTest {
                 // configurando o mock ClientService
                 List<ClientDTO> listaClientes;
                 listaClientes = new ArrayList<ClientDTO>();
-                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254871", 5000.0,
+                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254864", 5000.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0)));
-                listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", "10419244771", 7500.0,
+                listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", "10419244700", 7500.0,
                                 Instant.parse("1996-12-23T07:00:00Z"), 0)));
-                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344681", 10000.0,
+                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344612", 10000.0,
                                 Instant.parse("1940-02-23T07:00:00Z"), 0)));
                 listaClientes.add(new ClientDTO(new Client(9L, "Sebastião Siveira", "17256987123", 5000.0,
                                 Instant.parse("1952-08-31T15:30:00Z"), 1)));
@@ -429,7 +475,7 @@ public class ClientResourceTest {
                 Page<ClientDTO> page = new PageImpl<>(listaClientes);
 
                 Mockito.when(
-                                service.findByIncome(Mockito.any(), Mockito.anyDouble())).thenReturn(page);
+                                service.findByIncome(Mockito.any(), Mockito.anyDouble(), Mockito.any())).thenReturn(page);
                 // fim configuração mockito
 
                 // Act
@@ -441,7 +487,7 @@ public class ClientResourceTest {
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.content[?(@.id == '%s')]", 7L).exists())
                                 .andExpect(jsonPath("$.content[?(@.name == '%s')]", "Jose Saramago").exists())
-                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10239254871").exists())
+                                .andExpect(jsonPath("$.content[?(@.cpf == '%s')]", "10239254864").exists())
                                 .andExpect(jsonPath("$.content[?(@.income == '%s')]", 5000.0).exists())
                                 .andExpect(jsonPath("$.content[?(@.children == '%s')]", 0).exists())
                                 .andExpect(jsonPath("$.content[?(@.id == '%s')]", 9L).exists())
@@ -451,4 +497,35 @@ public class ClientResourceTest {
                                 .andExpect(jsonPath("$.content[?(@.children == '%s')]", 1).exists());
         }
 
+        @Test
+        @DisplayName("Verificar se o endpoint get/clients/ responde em CBOR com o envelope enxuto")
+        public void testarEndPointListarTodosClientesEmCbor() throws Exception {
+
+                // arrange
+                List<ClientDTO> listaClientes = new ArrayList<ClientDTO>();
+                listaClientes.add(new ClientDTO(new Client(7L, "Jose Saramago", "10239254864", 5000.0,
+                                Instant.parse("1996-12-23T07:00:00Z"), 0)));
+                listaClientes.add(new ClientDTO(new Client(8L, "Toni Morrison", "10219344612", 10000.0,
+                                Instant.parse("1940-02-23T07:00:00Z"), 0)));
+
+                Mockito.when(service.findAllPaged(Mockito.any(), Mockito.any())).thenReturn(new PageImpl<>(listaClientes));
+
+                // act
+                byte[] json = mockMVC.perform(get("/clients/").accept(MediaType.APPLICATION_JSON))
+                                .andReturn().getResponse().getContentAsByteArray();
+                ResultActions resultado = mockMVC.perform(get("/clients/").accept(MediaType.APPLICATION_CBOR));
+
+                // assign
+                resultado
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                                .andExpect(header().string("Vary", "Accept"));
+
+                byte[] cbor = resultado.andReturn().getResponse().getContentAsByteArray();
+                JsonNode pagina = new CBORMapper().readTree(cbor);
+                assertEquals(2, pagina.get("totalElements").asInt());
+                assertEquals("Toni Morrison", pagina.get("content").get(1).get("name").asText());
+                assertFalse(pagina.has("pageable"));
+                assertTrue(cbor.length < json.length);
+        }
 }
@@ -0,0 +1,54 @@
+package com.iftm.client.resources;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.iftm.client.resources.filters.QueryTraceFilter;
+
+/**
+ * Orçamento de SQL de uma requisição para usar em andExpect(): lê os cabeçalhos
+ * X-Query-* do QueryTraceFilter (client.query-trace.header, ligado no perfil test)
+ * e falha quando a requisição executa mais statements do que o previsto ou repete
+ * o mesmo SQL (N+1) mais vezes do que o permitido, que por padrão é nenhuma.
+ */
+public final class QueryBudget implements ResultMatcher {
+
+    private final int maxStatements;
+    private final int maxRepeated;
+
+    private QueryBudget(int maxStatements, int maxRepeated) {
+        this.maxStatements = maxStatements;
+        this.maxRepeated = maxRepeated;
+    }
+
+    public static QueryBudget statements(int maxStatements) {
+        return new QueryBudget(maxStatements, 0);
+    }
+
+    public QueryBudget repeated(int maxRepeated) {
+        return new QueryBudget(maxStatements, maxRepeated);
+    }
+
+    @Override
+    public void match(MvcResult result) {
+        MockHttpServletResponse response = result.getResponse();
+        String statements = response.getHeader(QueryTraceFilter.COUNT_HEADER);
+        if (statements == null) {
+            throw new AssertionError("No " + QueryTraceFilter.COUNT_HEADER
+                    + " header, is client.query-trace.header enabled?");
+        }
+        int executados = Integer.parseInt(statements);
+        int repetidos = Integer.parseInt(response.getHeader(QueryTraceFilter.REPEATED_HEADER));
+        String requisicao = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+        if (executados > maxStatements) {
+            throw new AssertionError("Query budget exceeded for " + requisicao + ": " + executados
+                    + " statements, budget " + maxStatements);
+        }
+        if (repetidos > maxRepeated) {
+            throw new AssertionError("Repeated queries for " + requisicao + ": " + repetidos
+                    + " statements re-ran the same SQL, budget " + maxRepeated);
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.iftm.client.resources;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:querybudgetdb" })
+@AutoConfigureMockMvc
+public class QueryBudgetIntegrationTest {
+    @Autowired
+    private MockMvc mockMVC;
+
+    /**
+     * Caso de testes : Verificar se as leituras de ClientResource ficam dentro do orçamento de SQL
+     * Arrange:
+     * - base de dados da carga inicial (12 clientes)
+     * - findById: 1 SELECT; listagem paginada: SELECT da página + COUNT
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se as leituras de /clients executam só os statements previstos")
+    public void testarOrcamentoDasLeituras() throws Exception {
+        //act + assign
+        mockMVC.perform(get("/clients/id/3").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(QueryBudget.statements(1))
+            .andExpect(header().string("X-Query-Rows", "1"));
+        mockMVC.perform(get("/clients").param("linesPerPage", "5").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(QueryBudget.statements(2));
+        mockMVC.perform(get("/clients/cpf/").param("cpf", "106").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(QueryBudget.statements(1));
+        mockMVC.perform(get("/clients/search").param("name", "C").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(QueryBudget.statements(1));
+    }
+
+    /**
+     * Caso de testes : Verificar se as escritas de ClientResource ficam dentro do orçamento de SQL
+     * Arrange:
+     * - insert: INSERT do cliente + INSERT no feed de mudanças
+     * - update: leitura, UPDATE e feed; patch: UPDATE e feed; delete: leitura, DELETE e feed
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se insert, update, patch e delete em /clients executam só os statements previstos")
+    public void testarOrcamentoDasEscritas() throws Exception {
+        //act + assign
+        mockMVC.perform(post("/clients/").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Ana Maria Gonçalves\",\"cpf\":\"52998224725\",\"income\":5000.0,\"children\":0}"))
+            .andExpect(status().isCreated())
+            .andExpect(QueryBudget.statements(2));
+        mockMVC.perform(put("/clients/4").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Itamar Vieira\",\"cpf\":\"11144477735\",\"income\":4100.0,\"children\":2}"))
+            .andExpect(status().isOk())
+            .andExpect(QueryBudget.statements(3));
+        mockMVC.perform(patch("/clients/5").contentType("application/merge-patch+json").content("{\"income\":3000.0}"))
+            .andExpect(status().isNoContent())
+            .andExpect(QueryBudget.statements(2));
+        mockMVC.perform(delete("/clients/6"))
+            .andExpect(status().isNoContent())
+            .andExpect(QueryBudget.statements(3));
+    }
+
+    /**
+     * Caso de testes : Verificar se o QueryBudget falha quando o orçamento é estourado
+     * Arrange:
+     * - listagem paginada (2 statements) com orçamento de 1
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se o QueryBudget reprova uma requisição acima do orçamento")
+    public void testarOrcamentoEstourado() throws Exception {
+        //act
+        AssertionError erro = assertThrows(AssertionError.class, () -> mockMVC.perform(get("/clients"))
+                .andExpect(QueryBudget.statements(1)));
+
+        //assign
+        assertTrue(erro.getMessage().contains("Query budget exceeded for GET /clients: 2 statements, budget 1"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.iftm.client.resources;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.iftm.client.config.ReplicaRoutingDataSource;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "client.datasource.replica.url=jdbc:h2:mem:routing-replica",
+        "client.datasource.replica.bootstrap-from-primary=true",
+        "client.datasource.read-your-writes-ms=60000",
+        "client.trusted-proxies=127\\.0\\.0\\.1" })
+@AutoConfigureMockMvc
+public class ReplicaRoutingIntegrationTest {
+    @Autowired
+    private MockMvc mockMVC;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Caso de testes : Verificar se as leituras vão para a réplica e, logo após uma escrita, para o primário
+     * Arrange:
+     * - base de dado : primário e réplica com os 12 clientes; na réplica o cliente 5 tem outro nome
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se as leituras usam a réplica e quem acabou de escrever lê do primário")
+    public void testarLeituraNaReplicaComReadYourWrites() throws Exception {
+        //arrange
+        new JdbcTemplate(ReplicaRoutingDataSource.of(dataSource).getReplica()).update("UPDATE tb_client SET name = 'Réplica' WHERE id = 5");
+
+        //act e assign
+        mockMVC.perform(get("/clients/id/{id}", 5L).header("X-API-Key", "leitor").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Réplica"));
+
+        mockMVC.perform(patch("/clients/{id}", 5L).header("X-API-Key", "escritor")
+                .contentType("application/merge-patch+json").content("{\"name\":\"Primário\"}"))
+            .andExpect(status().isNoContent());
+
+        mockMVC.perform(get("/clients/id/{id}", 5L).header("X-API-Key", "escritor").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Primário"));
+        mockMVC.perform(get("/clients/id/{id}", 5L).header("X-API-Key", "leitor").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Réplica"));
+    }
+
+    /**
+     * Caso de testes : Verificar se o read-your-writes separa clientes anônimos atrás do balanceador
+     * Arrange:
+     * - requisições chegando do proxy confiável 127.0.0.1 com X-Forwarded-For
+     * - na réplica o cliente 7 tem outro nome
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se a escrita de um cliente anônimo atrás do proxy não leva os outros ao primário")
+    public void testarReadYourWritesPorIpEncaminhado() throws Exception {
+        //arrange
+        new JdbcTemplate(ReplicaRoutingDataSource.of(dataSource).getReplica()).update("UPDATE tb_client SET name = 'Réplica' WHERE id = 7");
+
+        //act e assign
+        mockMVC.perform(patch("/clients/{id}", 7L).header("X-Forwarded-For", "203.0.113.7")
+                .contentType("application/merge-patch+json").content("{\"name\":\"Primário\"}"))
+            .andExpect(status().isNoContent());
+
+        mockMVC.perform(get("/clients/id/{id}", 7L).header("X-Forwarded-For", "203.0.113.7").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Primário"));
+        mockMVC.perform(get("/clients/id/{id}", 7L).header("X-Forwarded-For", "198.51.100.1").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Réplica"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.iftm.client.resources;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.repositories.ShardedClientRepository;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "client.sharding.urls=jdbc:h2:mem:shard-a,jdbc:h2:mem:shard-b,jdbc:h2:mem:shard-c",
+        "client.sharding.seed-from-primary=true", "client.sharding.max-offset=6" })
+@AutoConfigureMockMvc
+public class ShardedClientIntegrationTest {
+    @Autowired
+    private MockMvc mockMVC;
+
+    @Autowired
+    private ShardedClientRepository shards;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Caso de testes : Verificar se a listagem intercala os shards respeitando a ordenação e a paginação
+     * Arrange:
+     * - base de dado : 12 clientes distribuídos em 3 shards pelo CPF
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se as listagens paginadas juntam os shards na ordem pedida")
+    public void testarListagemIntercalada() throws Exception {
+        //act e assign
+        mockMVC.perform(get("/clients/").param("linesPerPage", "12").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(12))
+            .andExpect(jsonPath("$.content[0].name").value("Carolina Maria de Jesus"))
+            .andExpect(jsonPath("$.content[11].name").value("Yuval Noah Harari"));
+
+        mockMVC.perform(get("/clients/incomeGreaterThan/").param("income", "2000")
+                .param("orderBy", "income").param("direction", "DESC")
+                .param("page", "1").param("linesPerPage", "3").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(9))
+            .andExpect(jsonPath("$.content[*].income", contains(4500.0, 4500.0, 3800.0)));
+    }
+
+    /**
+     * Caso de testes : Verificar se páginas além de client.sharding.max-offset são rejeitadas com shards
+     * Arrange:
+     * - client.sharding.max-offset = 6
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se as listagens com shards rejeitam paginação mais funda que o teto")
+    public void testarPaginacaoFundaRejeitada() throws Exception {
+        //act e assign
+        mockMVC.perform(get("/clients/").param("page", "2").param("linesPerPage", "3").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].id", hasSize(3)));
+        mockMVC.perform(get("/clients/").param("page", "3").param("linesPerPage", "3").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Query rejected"));
+    }
+
+    /**
+     * Caso de testes : Verificar se um cliente inserido vai para o shard do seu CPF e é lido pelo id global
+     * Arrange:
+     * - CPF válido 52998224725
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se insert e busca por id usam o shard do cliente")
+    public void testarInsertEBuscaPorId() throws Exception {
+        //act
+        String corpo = mockMVC.perform(post("/clients/").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Maria Firmina\",\"cpf\":\"529.982.247-25\",\"income\":1200.0,\"children\":1}"))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        JsonNode criado = objectMapper.readTree(corpo);
+        long id = criado.get("id").asLong();
+
+        //assign
+        assertEquals(shards.shardDoCpf("52998224725"), id % shards.getShardCount());
+        mockMVC.perform(get("/clients/id/{id}", id).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Maria Firmina"));
+
+        mockMVC.perform(delete("/clients/{id}", id)).andExpect(status().isNoContent());
+        mockMVC.perform(get("/clients/id/{id}", id).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Caso de testes : Verificar se a importação em massa grava nos shards e devolve ids globais
+     * Arrange:
+     * - CSV com 2 clientes de CPFs diferentes
+     * - os clientes importados são removidos ao final para não alterar as contagens
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Verificar se post/clients/import grava cada linha no shard do CPF")
+    public void testarImportacaoNosShards() throws Exception {
+        //arrange
+        String csv = "name,cpf,income\n"
+                + "Maria Firmina,529.982.247-25,1200\n"
+                + "Lima Barreto,111.444.777-35,2100\n";
+
+        //act
+        mockMVC.perform(post("/clients/import").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2));
+
+        //assign
+        for (String cpf : new String[] { "52998224725", "11144477735" }) {
+            String corpo = mockMVC.perform(get("/clients/cpf/").param("cpf", cpf).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andReturn().getResponse().getContentAsString();
+            long id = objectMapper.readTree(corpo).get("content").get(0).get("id").asLong();
+            assertEquals(shards.shardDoCpf(cpf), id % shards.getShardCount());
+            mockMVC.perform(get("/clients/id/{id}", id).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+            mockMVC.perform(delete("/clients/{id}", id)).andExpect(status().isNoContent());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.iftm.client.resources.converters;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+
+public class ClientJsonHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ClientJsonHttpMessageConverter converter = new ClientJsonHttpMessageConverter();
+
+    private List<ClientDTO> clientes() {
+        List<ClientDTO> listaClientes = new ArrayList<ClientDTO>();
+        listaClientes.add(new ClientDTO(new Client(7L, "Jose \"Saramago\"", "10239254864", 5000.0,
+                Instant.parse("1996-12-23T07:00:00Z"), 0)));
+        listaClientes.add(new ClientDTO(new Client(4L, "Carolina Maria de Jesus", null, null,
+                Instant.parse("1996-12-23T07:00:00.123Z"), null)));
+        listaClientes.get(0).setVersion(3L);
+        return listaClientes;
+    }
+
+    private String escrever(Object valor, Type tipo) throws Exception {
+        MockHttpOutputMessage saida = new MockHttpOutputMessage();
+        converter.write(valor, tipo, MediaType.APPLICATION_JSON, saida);
+        return saida.getBodyAsString();
+    }
+
+    @Test
+    @DisplayName("Verificar se o conversor gera o mesmo JSON que o ObjectMapper para ClientDTO")
+    public void testarClientDTOIgualAoObjectMapper() throws Exception {
+        for (ClientDTO cliente : clientes()) {
+            assertEquals(objectMapper.writeValueAsString(cliente), escrever(cliente, ClientDTO.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se o conversor gera o mesmo JSON que o ObjectMapper para Page<ClientDTO>")
+    public void testarPageIgualAoObjectMapper() throws Exception {
+        Type tipoPagina = new ParameterizedTypeReference<Page<ClientDTO>>() {}.getType();
+        Page<ClientDTO> paginaOrdenada = new PageImpl<>(clientes(), PageRequest.of(1, 2, Direction.ASC, "name"), 7);
+        Page<ClientDTO> paginaSemOrdem = new PageImpl<>(clientes(), PageRequest.of(0, 12), 2);
+        Page<ClientDTO> paginaUnica = new PageImpl<>(clientes());
+
+        // a ordem das chaves de Pageable no ObjectMapper varia com a reflexão, então a comparação é por árvore
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(paginaOrdenada)),
+                objectMapper.readTree(escrever(paginaOrdenada, tipoPagina)));
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(paginaSemOrdem)),
+                objectMapper.readTree(escrever(paginaSemOrdem, tipoPagina)));
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(paginaUnica)),
+                objectMapper.readTree(escrever(paginaUnica, tipoPagina)));
+    }
+
+    @Test
+    @DisplayName("Verificar se o conversor só aceita ClientDTO e Page<ClientDTO> em JSON")
+    public void testarTiposSuportados() {
+        Type tipoPagina = new ParameterizedTypeReference<Page<ClientDTO>>() {}.getType();
+        Type tipoOutraPagina = new ParameterizedTypeReference<Page<String>>() {}.getType();
+
+        assertTrue(converter.canWrite(tipoPagina, Page.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(ClientDTO.class, ClientDTO.class, null));
+        assertFalse(converter.canWrite(tipoOutraPagina, Page.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ClientDTO.class, ClientDTO.class, MediaType.APPLICATION_CBOR));
+        assertFalse(converter.canRead(ClientDTO.class, null, MediaType.APPLICATION_JSON));
+    }
+}
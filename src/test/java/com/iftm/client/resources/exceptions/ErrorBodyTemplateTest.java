@@ -0,0 +1,39 @@
+package com.iftm.client.resources.exceptions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public class ErrorBodyTemplateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    @DisplayName("Verificar se o template gera o mesmo JSON que a serialização de StandardError")
+    public void testarTemplateEquivalenteAoStandardError() throws Exception {
+        Instant agora = Instant.parse("2020-07-13T20:50:00.123Z");
+        String mensagem = "Id \"não\" encontrado\\ 12\n";
+
+        StandardError err = new StandardError();
+        err.setTimestamp(agora);
+        err.setStatus(404);
+        err.setError("Resource not found");
+        err.setMessage(mensagem);
+        err.setPath("/clients/id/12");
+
+        String esperado = objectMapper.writeValueAsString(err);
+        String gerado = new ErrorBodyTemplate(404, "Resource not found").render(agora, mensagem, "/clients/id/12");
+
+        assertEquals(esperado, gerado);
+        assertEquals(objectMapper.readTree(esperado), objectMapper.readTree(gerado));
+    }
+}
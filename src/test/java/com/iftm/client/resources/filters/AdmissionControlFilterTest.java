@@ -0,0 +1,81 @@
+package com.iftm.client.resources.filters;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.servlet.FilterChain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.iftm.client.services.util.ClientKeyResolver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AdmissionControlFilterTest {
+
+    /* limite de concorrência fixo em 1 */
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(new SimpleMeterRegistry(),
+            new ClientKeyResolver("10\\.0\\.0\\.\\d+"), true, 1000, 1000, 100, 1, 1, 1, 200, 0.9, 0.1);
+
+    @Test
+    @DisplayName("Verificar se importação, varredura e SSE não ocupam o limite de concorrência das requisições comuns")
+    public void testarEndpointsLongosForaDoLimite() throws Exception {
+        for (String longa : new String[] { "/clients/import", "/clients/duplicates/scan", "/clients/changes/stream/" }) {
+            MockHttpServletResponse interna = new MockHttpServletResponse();
+            executar("POST", longa, (req, res) -> filter.doFilter(request("GET", "/clients/"), interna, (r, s) -> {
+            }));
+            assertEquals(200, interna.getStatus(), longa);
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se uma requisição comum ocupa o limite de concorrência")
+    public void testarRequisicaoComumOcupaLimite() throws Exception {
+        MockHttpServletResponse interna = new MockHttpServletResponse();
+        executar("GET", "/clients/id/1", (req, res) -> filter.doFilter(request("GET", "/clients/"), interna, (r, s) -> {
+        }));
+        assertEquals(429, interna.getStatus());
+    }
+
+    @Test
+    @DisplayName("Verificar se clientes anônimos atrás do balanceador têm token buckets separados")
+    public void testarBucketPorClienteAtrasDoProxy() throws Exception {
+        AdmissionControlFilter porTaxa = new AdmissionControlFilter(new SimpleMeterRegistry(),
+                new ClientKeyResolver("10\\.0\\.0\\.\\d+"), true, 0.001, 1, 100, 10, 10, 10, 200, 0.9, 0.1);
+
+        MockHttpServletResponse primeiro = new MockHttpServletResponse();
+        porTaxa.doFilter(encaminhado("203.0.113.7"), primeiro, (r, s) -> {
+        });
+        MockHttpServletResponse repetido = new MockHttpServletResponse();
+        porTaxa.doFilter(encaminhado("203.0.113.7"), repetido, (r, s) -> {
+        });
+        MockHttpServletResponse outroCliente = new MockHttpServletResponse();
+        porTaxa.doFilter(encaminhado("198.51.100.1"), outroCliente, (r, s) -> {
+        });
+
+        assertEquals(200, primeiro.getStatus());
+        assertEquals(429, repetido.getStatus());
+        assertEquals(200, outroCliente.getStatus());
+    }
+
+    private static MockHttpServletRequest encaminhado(String cliente) {
+        MockHttpServletRequest request = request("GET", "/clients/");
+        request.addHeader(ClientKeyResolver.FORWARDED_FOR_HEADER, cliente);
+        return request;
+    }
+
+    private void executar(String metodo, String uri, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(metodo, uri), response, chain);
+        assertEquals(200, response.getStatus());
+    }
+
+    private static MockHttpServletRequest request(String metodo, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+}
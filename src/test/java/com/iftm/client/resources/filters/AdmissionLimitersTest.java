@@ -0,0 +1,94 @@
+package com.iftm.client.resources.filters;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AdmissionLimitersTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Verificar se o token bucket libera a rajada, bloqueia o excesso e repõe os tokens com o tempo")
+    public void testarTokenBucket() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 3, 100);
+        long agora = 1_000 * SEGUNDO;
+
+        assertEquals(0, limiter.tryAcquire("a", agora));
+        assertEquals(0, limiter.tryAcquire("a", agora));
+        assertEquals(0, limiter.tryAcquire("a", agora));
+        long espera = limiter.tryAcquire("a", agora);
+        assertTrue(espera > 0 && espera <= SEGUNDO / 10);
+
+        assertEquals(0, limiter.tryAcquire("b", agora));
+        assertEquals(0, limiter.tryAcquire("a", agora + SEGUNDO / 10));
+    }
+
+    @Test
+    @DisplayName("Verificar se chaves ociosas são descartadas ao atingir o máximo de chaves")
+    public void testarLimpezaDeChaves() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 1, 2);
+        long agora = 1_000 * SEGUNDO;
+
+        limiter.tryAcquire("a", agora);
+        limiter.tryAcquire("b", agora);
+        limiter.tryAcquire("c", agora + SEGUNDO);
+
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    @DisplayName("Verificar se o limite de concorrência cresce com respostas rápidas e cai com respostas lentas")
+    public void testarLimiteAdaptativo() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 100, 0.5, 0.1);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(10, 1_000);
+        limiter.release(10, 1_100);
+        assertEquals(3.0, limiter.getLimit(), 1e-9);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Verificar se uma rajada de respostas lentas na mesma janela reduz o limite uma vez só")
+    public void testarUmaDecisaoPorJanela() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 100, 0.5, 0.1);
+
+        ciclo(limiter, 10, 1_000);
+        for (int i = 1; i <= 5; i++) {
+            ciclo(limiter, 1_000, 1_000 + i * 10);
+        }
+        assertEquals(8.0, limiter.getLimit(), 1e-9);
+
+        ciclo(limiter, 10, 1_100);
+        assertEquals(4.0, limiter.getLimit(), 1e-9);
+
+        ciclo(limiter, 10, 1_150);
+        ciclo(limiter, 10, 1_200);
+        assertEquals(5.0, limiter.getLimit(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Verificar se poucas respostas lentas (abaixo de slow-ratio) não reduzem o limite")
+    public void testarCaudaDeLatenciaNaoReduz() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 100, 0.5, 0.1);
+
+        ciclo(limiter, 10, 1_000);
+        for (int i = 1; i <= 19; i++) {
+            ciclo(limiter, i == 10 ? 1_000 : 10, 1_000 + i * 5);
+        }
+        ciclo(limiter, 10, 1_100);
+        assertEquals(9.0, limiter.getLimit(), 1e-9);
+    }
+
+    private static void ciclo(AdaptiveConcurrencyLimiter limiter, long latencia, long agora) {
+        assertTrue(limiter.tryAcquire());
+        limiter.release(latencia, agora);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.iftm.client.resources.filters;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CompressedPageFilterTest {
+
+    @Test
+    @DisplayName("Verificar se a codificação sai dos pesos do Accept-Encoding e não do texto do cabeçalho")
+    public void testarEscolhaDaCodificacao() {
+        assertEquals("gzip", CompressedPageFilter.encoding("gzip, deflate, br"));
+        assertEquals("deflate", CompressedPageFilter.encoding("gzip;q=0, deflate"));
+        assertEquals("deflate", CompressedPageFilter.encoding("gzip;q=0.5, deflate;q=0.8"));
+        assertEquals("gzip", CompressedPageFilter.encoding("x-gzip"));
+        assertEquals("gzip", CompressedPageFilter.encoding("*"));
+        assertEquals("deflate", CompressedPageFilter.encoding("*;q=0.5, gzip;q=0.1"));
+        assertEquals("gzip", CompressedPageFilter.encoding("GZIP ; Q=1.0"));
+    }
+
+    @Test
+    @DisplayName("Verificar se codificações recusadas (q=0), inválidas ou ausentes desligam a compressão")
+    public void testarCodificacaoRecusada() {
+        assertNull(CompressedPageFilter.encoding(null));
+        assertNull(CompressedPageFilter.encoding("identity"));
+        assertNull(CompressedPageFilter.encoding("gzip;q=0"));
+        assertNull(CompressedPageFilter.encoding("gzip;q=0, deflate;q=0.000"));
+        assertNull(CompressedPageFilter.encoding("*;q=0, br"));
+        assertNull(CompressedPageFilter.encoding("gzip;q=abc"));
+        assertNull(CompressedPageFilter.encoding("nogzip, deflated"));
+    }
+
+}
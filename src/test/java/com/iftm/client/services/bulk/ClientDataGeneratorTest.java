@@ -0,0 +1,59 @@
+package com.iftm.client.services.bulk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.util.Validador;
+
+public class ClientDataGeneratorTest {
+
+    @Test
+    @DisplayName("Verificar se a mesma semente gera as mesmas linhas, em qualquer ordem, e outra semente gera outras")
+    public void testarDeterminismo() {
+        ClientDataGenerator gerador = new ClientDataGenerator(42);
+        ClientDataGenerator mesmo = new ClientDataGenerator(42);
+        ClientDataGenerator outro = new ClientDataGenerator(7);
+
+        Client depois = gerador.gerar(999);
+        gerador.gerar(0);
+        Client antes = mesmo.gerar(999);
+
+        assertEquals(antes.getName(), depois.getName());
+        assertEquals(antes.getCpf(), depois.getCpf());
+        assertEquals(antes.getIncome(), depois.getIncome());
+        assertEquals(antes.getBirthDate(), depois.getBirthDate());
+        assertEquals(antes.getChildren(), depois.getChildren());
+        assertNotEquals(antes.getCpf(), outro.gerar(999).getCpf());
+    }
+
+    @Test
+    @DisplayName("Verificar se os CPFs gerados são válidos e únicos e se as distribuições ficam em faixas plausíveis")
+    public void testarCpfsEDistribuicoes() {
+        ClientDataGenerator gerador = new ClientDataGenerator(42);
+        Set<String> cpfs = new HashSet<>();
+        Set<String> nomes = new HashSet<>();
+        double somaRenda = 0;
+        int n = 20_000;
+
+        for (int i = 0; i < n; i++) {
+            Client client = gerador.gerar(i);
+            assertTrue(Validador.digitosVerificadoresValidos(client.getCpf()), client.getCpf());
+            assertTrue(cpfs.add(client.getCpf()));
+            assertTrue(client.getIncome() > 0);
+            assertTrue(client.getChildren() >= 0 && client.getChildren() <= 8);
+            nomes.add(client.getName());
+            somaRenda += client.getIncome();
+        }
+
+        double mediaRenda = somaRenda / n;
+        assertTrue(mediaRenda > 2_500 && mediaRenda < 5_000, "media " + mediaRenda);
+        assertTrue(nomes.size() > 500 && nomes.size() < n / 2, "nomes " + nomes.size());
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.iftm.client.services.bulk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ClientDuplicateServiceTest {
+
+    @Test
+    @DisplayName("Verificar se a normalização remove acentos, caixa e pontuação dos nomes")
+    public void testarNormalizacao() {
+        assertEquals("conceicao evaristo", ClientDuplicateService.normalizarNome("  Conceição  EVARISTO. "));
+        assertEquals("jose d avila", ClientDuplicateService.normalizarNome("José d'Ávila"));
+        assertEquals("", ClientDuplicateService.normalizarNome(null));
+    }
+
+    @Test
+    @DisplayName("Verificar se Jaro-Winkler dá os valores de referência e favorece prefixos comuns")
+    public void testarJaroWinkler() {
+        assertEquals(1.0, ClientDuplicateService.jaroWinkler("martha", "martha"));
+        assertEquals(0.9611, ClientDuplicateService.jaroWinkler("martha", "marhta"), 1e-4);
+        assertEquals(0.84, ClientDuplicateService.jaroWinkler("dwayne", "duane"), 1e-4);
+        assertEquals(0.0, ClientDuplicateService.jaroWinkler("abc", "xyz"));
+        assertTrue(ClientDuplicateService.jaroWinkler("jorge amado", "jorge amada") >= 0.92);
+        assertTrue(ClientDuplicateService.jaroWinkler("jorge amado", "jose saramago") < 0.92);
+    }
+}
@@ -0,0 +1,84 @@
+package com.iftm.client.services.invalidation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.util.ClientGeneration;
+import com.iftm.client.services.util.Validador;
+
+@SpringBootTest
+public class ClientInvalidationRelayTest {
+
+    @Autowired
+    private ClientInvalidationBus bus;
+
+    @Autowired
+    private ClientInvalidationRelay relay;
+
+    @Autowired
+    private ClientGeneration generation;
+
+    @Autowired
+    private Validador validador;
+
+    @Autowired
+    private ClientService service;
+
+    /**
+     * Caso de testes : Verificar se uma invalidação vinda de outro nó atualiza a geração e os limites de id
+     * Arrange:
+     * - base de dado : 12 clientes (ids 1 a 12)
+     * - id 5000 inserido e depois removido em outro nó
+     */
+    @Test
+    @DisplayName("Verificar se invalidações remotas avançam a geração local e ampliam os limites de id")
+    public void testarInvalidacaoRemota() {
+        //arrange
+        long geracaoAntes = generation.atual();
+
+        //act
+        bus.publicar(new ClientInvalidation("outro-no", 5000L, ClientChange.Type.INSERT, 0L, System.currentTimeMillis()));
+
+        //assign
+        assertTrue(generation.atual() > geracaoAntes);
+        assertDoesNotThrow(() -> validador.eValido(5000L));
+
+        bus.publicar(new ClientInvalidation("outro-no", 5000L, ClientChange.Type.DELETE, null, System.currentTimeMillis()));
+        assertThrows(ResourceNotFoundException.class, () -> validador.eValido(5000L));
+    }
+
+    /**
+     * Caso de testes : Verificar se as escritas locais são publicadas no barramento depois do commit
+     * Arrange:
+     * - CPF válido 11144477735
+     */
+    @Test
+    @DisplayName("Verificar se insert e delete publicam invalidações com o id do cliente")
+    public void testarPublicacaoDasEscritas() {
+        //arrange
+        List<ClientInvalidation> recebidas = new CopyOnWriteArrayList<>();
+        bus.assinar(recebidas::add);
+
+        //act
+        ClientDTO dto = service.insert(new ClientDTO(null, "Lima Barreto", "11144477735", 1800.0, null, 0));
+        service.delete(dto.getId());
+
+        //assign
+        assertEquals(2, recebidas.size());
+        assertEquals(ClientChange.Type.INSERT, recebidas.get(0).getType());
+        assertEquals(ClientChange.Type.DELETE, recebidas.get(1).getType());
+        assertEquals(dto.getId(), recebidas.get(1).getClientId());
+        assertEquals(relay.getNodeId(), recebidas.get(0).getOrigem());
+    }
+}
@@ -0,0 +1,98 @@
+package com.iftm.client.services.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.repositories.ClientChangeRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ClientCacheTest {
+
+    private final ClientChangeRepository changes = mock(ClientChangeRepository.class);
+
+    @Test
+    @DisplayName("Verificar se uma leitura que cruzou com uma invalidação não entra no cache")
+    public void testarInvalidacaoDuranteLeitura() {
+        ClientCache cache = new ClientCache(changes, new SimpleMeterRegistry(), 10, 60_000, "", 0);
+
+        long marca = cache.marca();
+        cache.invalidar(1L);
+        cache.put(cliente(1L, "Antigo"), marca);
+        assertNull(cache.get(1L));
+
+        cache.put(cliente(1L, "Novo"), cache.marca());
+        assertEquals("Novo", cache.get(1L).getName());
+        cache.invalidar(1L);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("Verificar se uma entrada expira ttl depois de gravada mesmo sem invalidação")
+    public void testarExpiracaoPorTtl() {
+        ClientCache cache = new ClientCache(changes, new SimpleMeterRegistry(), 10, 1_000, "", 0);
+        long gravacao = 5_000_000_000L;
+        long segundo = 1_000_000_000L;
+
+        cache.put(cliente(1L, "Clarice Lispector"), cache.marca(), gravacao);
+        assertEquals("Clarice Lispector", cache.get(1L, gravacao + segundo - 1).getName());
+        assertEquals(0L, cache.version(1L, gravacao + segundo - 1));
+
+        assertNull(cache.version(1L, gravacao + segundo));
+        assertNull(cache.get(1L, gravacao + segundo));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Verificar se o snapshot volta para o cache sem os ids alterados depois do seq gravado")
+    public void testarSnapshot(@TempDir Path pasta) throws Exception {
+        Path arquivo = pasta.resolve("clients.snapshot");
+        ClientCache cache = new ClientCache(changes, new SimpleMeterRegistry(), 10, 60_000, arquivo.toString(), 0);
+        ClientDTO semRenda = new ClientDTO(2L, "Djamila Ribeiro", "11144477735", null, null, 1);
+        semRenda.setVersion(3L);
+        cache.put(cliente(1L, "Clarice Lispector"), cache.marca());
+        cache.put(semRenda, cache.marca());
+        when(changes.findMaxSeq()).thenReturn(5L);
+        cache.gravar(arquivo);
+
+        ClientChange mudanca = mock(ClientChange.class);
+        when(mudanca.getSeq()).thenReturn(6L);
+        when(mudanca.getClientId()).thenReturn(1L);
+        when(changes.findMaxSeq()).thenReturn(6L);
+        when(changes.findSince(eq(5L), any(Pageable.class))).thenReturn(Arrays.asList(mudanca));
+        ClientCache novo = new ClientCache(changes, new SimpleMeterRegistry(), 10, 60_000, arquivo.toString(), 0);
+
+        assertEquals(1, novo.carregar(arquivo));
+        assertNull(novo.get(1L));
+        ClientDTO lido = novo.get(2L);
+        assertEquals("Djamila Ribeiro", lido.getName());
+        assertNull(lido.getIncome());
+        assertNull(lido.getBirthDate());
+        assertEquals(1, lido.getChildren());
+        assertEquals(3L, lido.getVersion());
+
+        when(changes.findMaxSeq()).thenReturn(4L);
+        when(changes.findSince(anyLong(), any(Pageable.class))).thenReturn(Collections.emptyList());
+        assertEquals(0, new ClientCache(changes, new SimpleMeterRegistry(), 10, 60_000, arquivo.toString(), 0).carregar(arquivo));
+    }
+
+    private static ClientDTO cliente(Long id, String name) {
+        ClientDTO dto = new ClientDTO(id, name, "52998224725", 3800.0, Instant.parse("1960-04-13T07:50:00Z"), 2);
+        dto.setVersion(0L);
+        return dto;
+    }
+
+}
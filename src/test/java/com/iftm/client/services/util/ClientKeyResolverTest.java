@@ -0,0 +1,59 @@
+package com.iftm.client.services.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class ClientKeyResolverTest {
+
+    @Test
+    @DisplayName("Verificar se atrás de um proxy confiável o IP do cliente vem do X-Forwarded-For")
+    public void testarIpAtrasDoProxy() {
+        ClientKeyResolver resolver = new ClientKeyResolver("10\\.0\\.0\\.\\d+");
+
+        assertEquals("ip:203.0.113.7", resolver.chave(request("10.0.0.2", "203.0.113.7")));
+        assertEquals("ip:203.0.113.7", resolver.chave(request("10.0.0.2", "198.51.100.1, 203.0.113.7, 10.0.0.9")));
+        assertEquals("key:abc", resolver.chave(comApiKey(request("10.0.0.2", "203.0.113.7"), "abc")));
+        assertEquals("ip:10.0.0.2", resolver.chave(request("10.0.0.2", null)));
+    }
+
+    @Test
+    @DisplayName("Verificar se o X-Forwarded-For é ignorado quando a conexão não vem de um proxy confiável")
+    public void testarForwardedForjado() {
+        assertEquals("ip:198.51.100.1", new ClientKeyResolver("10\\.0\\.0\\.\\d+")
+                .chave(request("198.51.100.1", "203.0.113.7")));
+        assertEquals("ip:10.0.0.2", new ClientKeyResolver("").chave(request("10.0.0.2", "203.0.113.7")));
+    }
+
+    @Test
+    @DisplayName("Verificar se o perfil prod confia nos endereços privados do balanceador")
+    public void testarProxiesDoPerfilProd() throws Exception {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addLast(new ResourcePropertySource("classpath:application-prod.properties"));
+        ClientKeyResolver resolver = new ClientKeyResolver(env.getProperty("client.trusted-proxies"));
+
+        assertEquals("ip:203.0.113.7", resolver.chave(request("10.1.2.3", "203.0.113.7")));
+        assertEquals("ip:203.0.113.8", resolver.chave(request("172.20.0.5", "203.0.113.8")));
+        assertEquals("ip:203.0.113.9", resolver.chave(request("192.168.0.10", "203.0.113.9")));
+        assertEquals("ip:203.0.113.10", resolver.chave(request("203.0.113.10", "10.1.2.3")));
+    }
+
+    private static MockHttpServletRequest request(String remoto, String encaminhado) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/clients/");
+        request.setRemoteAddr(remoto);
+        if (encaminhado != null) {
+            request.addHeader(ClientKeyResolver.FORWARDED_FOR_HEADER, encaminhado);
+        }
+        return request;
+    }
+
+    private static MockHttpServletRequest comApiKey(MockHttpServletRequest request, String chave) {
+        request.addHeader(ClientKeyResolver.API_KEY_HEADER, chave);
+        return request;
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.iftm.client.services.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.security.InvalidParameterException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.iftm.client.dto.ClientDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class IdempotencyStoreTest {
+
+    private final AtomicInteger insercoes = new AtomicInteger();
+
+    @Test
+    @DisplayName("Verificar se a repetição concorrente espera a primeira inserção e recebe o mesmo cliente")
+    public void testarRepeticaoDuranteInsercao() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 60, 10);
+        CountDownLatch noBanco = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotencyStore.Resultado> primeira = executor.submit(() -> store.executar("k", cliente(), () -> {
+                noBanco.countDown();
+                await(liberar);
+                return salvo(insercoes.incrementAndGet());
+            }, 0));
+            noBanco.await(5, TimeUnit.SECONDS);
+            new Thread(liberar::countDown).start();
+            IdempotencyStore.Resultado repetida = store.executar("k", cliente(), () -> salvo(insercoes.incrementAndGet()), 1);
+
+            assertTrue(repetida.isRepetido());
+            assertFalse(primeira.get(5, TimeUnit.SECONDS).isRepetido());
+            assertEquals(1L, repetida.getDto().getId());
+            assertEquals(1, insercoes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se a chave expira, libera após falha, rejeita outro corpo e respeita o limite de chaves")
+    public void testarExpiracaoFalhaELimite() {
+        IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 60, 2);
+        long ttl = TimeUnit.SECONDS.toNanos(60);
+
+        assertThrows(IllegalStateException.class, () -> store.executar("falha", cliente(), () -> {
+            throw new IllegalStateException("timeout");
+        }, 0));
+        assertFalse(store.executar("falha", cliente(), () -> salvo(insercoes.incrementAndGet()), 1).isRepetido());
+
+        ClientDTO outro = cliente();
+        outro.setName("Outro Nome");
+        assertThrows(InvalidParameterException.class,
+                () -> store.executar("falha", outro, () -> salvo(insercoes.incrementAndGet()), 2));
+
+        store.executar("b", cliente(), () -> salvo(insercoes.incrementAndGet()), 3);
+        store.executar("c", cliente(), () -> salvo(insercoes.incrementAndGet()), 4);
+        assertEquals(2, store.size());
+        assertFalse(store.executar("falha", cliente(), () -> salvo(insercoes.incrementAndGet()), 5).isRepetido());
+
+        assertTrue(store.executar("c", cliente(), () -> salvo(insercoes.incrementAndGet()), ttl).isRepetido());
+        assertFalse(store.executar("c", cliente(), () -> salvo(insercoes.incrementAndGet()), ttl + 4).isRepetido());
+    }
+
+    private static ClientDTO cliente() {
+        return new ClientDTO(null, "Clarice Lispector", "52998224725", 3800.0, null, 2);
+    }
+
+    private static ClientDTO salvo(long id) {
+        ClientDTO dto = cliente();
+        dto.setId(id);
+        return dto;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.iftm.client.services.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.security.InvalidParameterException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ValidadorTest {
+
+    private final Validador validador = new Validador();
+
+    @Test
+    @DisplayName("Verificar se um CPF válido já normalizado é devolvido sem cópia")
+    public void testarCpfNormalizadoValido() {
+        String cpf = "52998224725";
+
+        assertSame(cpf, validador.normalizarCpf(cpf));
+    }
+
+    @Test
+    @DisplayName("Verificar se um CPF formatado é normalizado para 11 dígitos")
+    public void testarCpfFormatadoValido() {
+        assertEquals("52998224725", validador.normalizarCpf("529.982.247-25"));
+        assertEquals("11144477735", validador.normalizarCpf("111 444 777 35"));
+    }
+
+    @Test
+    @DisplayName("Verificar se CPFs com dígito verificador errado, tamanho errado ou repetidos são rejeitados")
+    public void testarCpfInvalido() {
+        assertThrows(InvalidParameterException.class, () -> validador.normalizarCpf("106.192.448-81"));
+        assertThrows(InvalidParameterException.class, () -> validador.normalizarCpf("5299822472"));
+        assertThrows(InvalidParameterException.class, () -> validador.normalizarCpf("529982247251"));
+        assertThrows(InvalidParameterException.class, () -> validador.normalizarCpf("529.982.247/25"));
+        assertThrows(InvalidParameterException.class, () -> validador.normalizarCpf("11111111111"));
+        assertThrows(InvalidParameterException.class, () -> validador.normalizarCpf(null));
+    }
+
+    @Test
+    @DisplayName("Verificar se a busca parcial remove apenas os separadores")
+    public void testarCpfParcial() {
+        assertEquals("92", validador.normalizarCpfParcial("92"));
+        assertEquals("106192", validador.normalizarCpfParcial("106.192"));
+        assertEquals("", validador.normalizarCpfParcial(null));
+        assertThrows(InvalidParameterException.class, () -> validador.normalizarCpfParcial("10%"));
+    }
+
+    @Test
+    @DisplayName("Verificar a representação compacta do CPF")
+    public void testarCpfComoLong() {
+        assertEquals(52998224725L, Validador.cpfComoLong("52998224725"));
+        assertEquals(1144477735L, Validador.cpfComoLong("01144477735"));
+    }
+}